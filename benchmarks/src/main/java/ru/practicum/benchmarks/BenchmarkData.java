@@ -0,0 +1,84 @@
+package ru.practicum.benchmarks;
+
+import ru.practicum.main.category.model.Category;
+import ru.practicum.main.event.model.Event;
+import ru.practicum.main.event.model.EventState;
+import ru.practicum.main.event.service.EventUris;
+import ru.practicum.main.location.model.Location;
+import ru.practicum.main.user.model.User;
+import ru.practicum.stats.dto.ViewStats;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Детерминированные данные для бенчмарков: одинаковый seed даёт одинаковые наборы при каждом запуске.
+ */
+final class BenchmarkData {
+    private static final long SEED = 42L;
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+    private BenchmarkData() {
+    }
+
+    static List<Event> events(int count) {
+        Random random = new Random(SEED);
+        List<Category> categories = new ArrayList<>();
+        for (long i = 1; i <= 20; i++) {
+            categories.add(new Category(i, "Категория " + i));
+        }
+        List<User> users = new ArrayList<>();
+        for (long i = 1; i <= 100; i++) {
+            users.add(User.builder().id(i).name("Пользователь " + i).email("user" + i + "@example.com").build());
+        }
+
+        List<Event> events = new ArrayList<>(count);
+        for (long id = 1; id <= count; id++) {
+            events.add(Event.builder()
+                    .id(id)
+                    .annotation(text(random, 200))
+                    .description(text(random, 1500))
+                    .title(text(random, 60))
+                    .category(categories.get(random.nextInt(categories.size())))
+                    .initiator(users.get(random.nextInt(users.size())))
+                    .location(new Location(id, random.nextFloat() * 90, random.nextFloat() * 180))
+                    .createdOn(BASE.minusDays(random.nextInt(365)))
+                    .publishedOn(BASE.minusDays(random.nextInt(30)))
+                    .eventDate(BASE.plusDays(random.nextInt(365)))
+                    .paid(random.nextBoolean())
+                    .participantLimit(random.nextInt(100))
+                    .requestModeration(random.nextBoolean())
+                    .state(EventState.PUBLISHED)
+                    .build());
+        }
+        return events;
+    }
+
+    static List<ViewStats> views(List<Event> events) {
+        Random random = new Random(SEED);
+        List<ViewStats> stats = new ArrayList<>(events.size());
+        for (Event event : events) {
+            stats.add(new ViewStats("ewm-main-service", EventUris.of(event.getId()), (long) random.nextInt(10_000)));
+        }
+        return stats;
+    }
+
+    static List<Object[]> confirmedRequests(List<Event> events) {
+        Random random = new Random(SEED);
+        List<Object[]> counts = new ArrayList<>(events.size());
+        for (Event event : events) {
+            counts.add(new Object[]{event.getId(), (long) random.nextInt(100)});
+        }
+        return counts;
+    }
+
+    private static String text(Random random, int length) {
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            builder.append(i % 8 == 7 ? ' ' : (char) ('а' + random.nextInt(32)));
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,92 @@
+package ru.practicum.benchmarks;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import ru.practicum.main.category.mapper.CategoryMapperImpl;
+import ru.practicum.main.category.repository.CategoryRepository;
+import ru.practicum.main.etag.ViewsCache;
+import ru.practicum.main.event.dto.EventShortDto;
+import ru.practicum.main.event.mapper.EventMapper;
+import ru.practicum.main.event.mapper.EventMapperImpl;
+import ru.practicum.main.event.model.Event;
+import ru.practicum.main.event.repository.EventRepository;
+import ru.practicum.main.event.service.EventServiceImpl;
+import ru.practicum.main.location.mapper.LocationMapperImpl;
+import ru.practicum.main.location.repository.LocationRepository;
+import ru.practicum.main.request.mapper.RequestMapper;
+import ru.practicum.main.request.mapper.RequestMapperImpl;
+import ru.practicum.main.request.repository.RequestRepository;
+import ru.practicum.main.user.mapper.UserMapperImpl;
+import ru.practicum.main.user.repository.UserRepository;
+import ru.practicum.stats.client.StatsClient;
+import ru.practicum.stats.dto.ViewStats;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Обогащение событий просмотрами и подтверждёнными заявками без сети и БД:
+ * сервис статистики и репозиторий заявок заменены заглушками с заранее подготовленными ответами,
+ * поэтому измеряются только построение URI, разбор ответа и сборка DTO.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgs = {"-Xms1g", "-Xmx1g"})
+public class EventEnrichmentBenchmark {
+    @Param({"10", "100", "1000"})
+    private int size;
+
+    private AnnotationConfigApplicationContext context;
+    private EventServiceImpl service;
+    private List<Event> events;
+
+    @Setup
+    public void setUp() {
+        context = new AnnotationConfigApplicationContext(EventMapperImpl.class, CategoryMapperImpl.class,
+                UserMapperImpl.class, LocationMapperImpl.class, RequestMapperImpl.class);
+        events = BenchmarkData.events(size);
+        List<ViewStats> views = BenchmarkData.views(events);
+        List<Object[]> confirmed = BenchmarkData.confirmedRequests(events);
+
+        StatsClient statsClient = new StatsClient(new RestTemplateBuilder(), "http://localhost:0") {
+            @Override
+            public List<ViewStats> getStats(LocalDateTime start, LocalDateTime end, List<String> uris,
+                                            boolean unique) {
+                return views;
+            }
+        };
+        RequestRepository requestRepository = stub(RequestRepository.class, "countConfirmedRequestsForEvents",
+                confirmed);
+
+        service = new EventServiceImpl(stub(EventRepository.class, null, null), stub(UserRepository.class, null, null),
+                stub(CategoryRepository.class, null, null), stub(LocationRepository.class, null, null),
+                requestRepository, context.getBean(EventMapper.class), context.getBean(RequestMapper.class),
+                statsClient, new SimpleMeterRegistry(), new ViewsCache(60_000, 10_000));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<EventShortDto> addViewsAndConfirmedRequestsToShortEvents() {
+        return service.addViewsAndConfirmedRequestsToShortEvents(events);
+    }
+
+    private static <T> T stub(Class<T> type, String method, Object result) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, invoked, args) -> {
+            if (invoked.getName().equals(method)) {
+                return result;
+            }
+            throw new UnsupportedOperationException(invoked.getName());
+        }));
+    }
+}
@@ -0,0 +1,45 @@
+package ru.practicum.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.practicum.main.category.mapper.CategoryMapperImpl;
+import ru.practicum.main.event.dto.EventFullDto;
+import ru.practicum.main.event.mapper.EventMapper;
+import ru.practicum.main.event.mapper.EventMapperImpl;
+import ru.practicum.main.location.mapper.LocationMapperImpl;
+import ru.practicum.main.user.mapper.UserMapperImpl;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgs = {"-Xms1g", "-Xmx1g"})
+public class EventJsonBenchmark {
+    @Param({"10", "100", "1000"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private List<EventFullDto> dtos;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(
+                EventMapperImpl.class, CategoryMapperImpl.class, UserMapperImpl.class, LocationMapperImpl.class)) {
+            EventMapper mapper = context.getBean(EventMapper.class);
+            dtos = BenchmarkData.events(size).stream().map(mapper::toFullDto).toList();
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeFullDtos() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(dtos);
+    }
+}
@@ -0,0 +1,56 @@
+package ru.practicum.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import ru.practicum.main.category.mapper.CategoryMapperImpl;
+import ru.practicum.main.event.mapper.EventMapper;
+import ru.practicum.main.event.mapper.EventMapperImpl;
+import ru.practicum.main.event.model.Event;
+import ru.practicum.main.location.mapper.LocationMapperImpl;
+import ru.practicum.main.user.mapper.UserMapperImpl;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgs = {"-Xms1g", "-Xmx1g"})
+public class EventMapperBenchmark {
+    @Param({"10", "100", "1000"})
+    private int size;
+
+    private AnnotationConfigApplicationContext context;
+    private EventMapper mapper;
+    private List<Event> events;
+
+    @Setup
+    public void setUp() {
+        context = new AnnotationConfigApplicationContext(EventMapperImpl.class, CategoryMapperImpl.class,
+                UserMapperImpl.class, LocationMapperImpl.class);
+        mapper = context.getBean(EventMapper.class);
+        events = BenchmarkData.events(size);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void toFullDto(Blackhole blackhole) {
+        for (Event event : events) {
+            blackhole.consume(mapper.toFullDto(event));
+        }
+    }
+
+    @Benchmark
+    public void toShortDto(Blackhole blackhole) {
+        for (Event event : events) {
+            blackhole.consume(mapper.toShortDto(event));
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package ru.practicum.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import ru.practicum.main.event.model.Event;
+import ru.practicum.main.event.service.EventUris;
+import ru.practicum.stats.dto.ViewStats;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgs = {"-Xms1g", "-Xmx1g"})
+public class EventUrisBenchmark {
+    @Param({"10", "100", "1000"})
+    private int size;
+
+    private List<Event> events;
+    private List<ViewStats> views;
+
+    @Setup
+    public void setUp() {
+        events = BenchmarkData.events(size);
+        views = BenchmarkData.views(events);
+    }
+
+    @Benchmark
+    public void buildUris(Blackhole blackhole) {
+        for (Event event : events) {
+            blackhole.consume(EventUris.of(event.getId()));
+        }
+    }
+
+    @Benchmark
+    public void parseIds(Blackhole blackhole) {
+        for (ViewStats stat : views) {
+            blackhole.consume(EventUris.parseId(stat.getUri()));
+        }
+    }
+}
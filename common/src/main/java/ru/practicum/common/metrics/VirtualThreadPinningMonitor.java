@@ -0,0 +1,66 @@
+package ru.practicum.common.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.stream.Collectors;
+
+/**
+ * При spring.threads.virtual.enabled=true слушает JFR-событие jdk.VirtualThreadPinned: каждое закрепление
+ * виртуального потока дольше threads.pinning.threshold-ms попадает в таймер jvm.threads.virtual.pinned
+ * и в лог вместе с верхушкой стека, по которой видно, какой synchronized-участок блокируется.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadPinningMonitor implements DisposableBean {
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int LOGGED_FRAMES = 8;
+
+    private final RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(MeterRegistry registry,
+                                       @Value("${threads.pinning.threshold-ms:20}") long thresholdMillis) {
+        Timer pinned = Timer.builder("jvm.threads.virtual.pinned")
+                .description("Время, на которое виртуальные потоки закреплялись за несущими")
+                .register(registry);
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(Duration.ofMillis(thresholdMillis)).withStackTrace();
+        stream.onEvent(PINNED_EVENT, event -> {
+            pinned.record(event.getDuration());
+            log.warn("Виртуальный поток закреплён за несущим на {} мс: {}", event.getDuration().toMillis(),
+                    describe(event.getStackTrace()));
+        });
+        stream.startAsync();
+        log.info("Отслеживание закреплений виртуальных потоков дольше {} мс включено", thresholdMillis);
+    }
+
+    @Override
+    public void destroy() {
+        stream.close();
+    }
+
+    private static String describe(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "стек недоступен";
+        }
+        return stackTrace.getFrames().stream()
+                .limit(LOGGED_FRAMES)
+                .map(VirtualThreadPinningMonitor::describe)
+                .collect(Collectors.joining(" <- "));
+    }
+
+    private static String describe(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":"
+                + frame.getLineNumber();
+    }
+}
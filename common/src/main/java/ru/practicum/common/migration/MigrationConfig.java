@@ -0,0 +1,36 @@
+package ru.practicum.common.migration;
+
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.api.output.MigrateResult;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Миграции схемы выполняются Flyway при старте. Ожидание блокировок ограничено lock_timeout
+ * (spring.flyway.init-sqls), а общее время миграций сверяется с бюджетом migrations.startup-budget-ms:
+ * индексы создаются CONCURRENTLY, а прерванная на полпути миграция оставила бы схему в промежуточном состоянии,
+ * поэтому превышение только логируется. Общий для main-service и stats-app.
+ */
+@Slf4j
+@Configuration
+public class MigrationConfig {
+
+    @Bean
+    public FlywayMigrationStrategy budgetedMigrationStrategy(
+            @Value("${migrations.startup-budget-ms:30000}") long budgetMillis) {
+        return flyway -> {
+            long started = System.nanoTime();
+            MigrateResult result = flyway.migrate();
+            long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+            if (elapsedMillis > budgetMillis) {
+                log.warn("Миграции до версии {} ({} шт.) заняли {} мс при бюджете {} мс", result.targetSchemaVersion,
+                        result.migrationsExecuted, elapsedMillis, budgetMillis);
+            } else {
+                log.info("Миграции до версии {} ({} шт.) выполнены за {} мс", result.targetSchemaVersion,
+                        result.migrationsExecuted, elapsedMillis);
+            }
+        };
+    }
+}
@@ -0,0 +1,87 @@
+package ru.practicum.loadtest;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Заполняет схему main-service средствами самой БД (generate_series), поэтому даже 10^6 заявок
+ * создаются за секунды. Идентификаторы задаются явно и идут подряд с 1, после чего последовательности сдвигаются
+ * за максимальный id. Опубликовано каждое событие, id которого не делится на 5.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class DataSeeder {
+    private static final int LOCATIONS = 1000;
+    private static final int EVENTS_PER_COMPILATION = 10;
+    private static final List<String> SEQUENCE_TABLES = List.of("users", "categories", "locations", "events",
+            "requests", "comments", "compilations");
+
+    private final DataSource dataSource;
+    private final LoadTestConfig config;
+
+    public void seed() throws SQLException {
+        if ((long) config.events() * config.users() < config.requests()) {
+            throw new IllegalArgumentException("Заявок больше, чем уникальных пар событие-пользователь");
+        }
+        long started = System.nanoTime();
+        try (Connection connection = dataSource.getConnection()) {
+            execute(connection, "INSERT INTO users (id, email, name) "
+                    + "SELECT g, 'user' || g || '@load.test', 'Пользователь ' || g FROM generate_series(1, ?) g",
+                    config.users());
+            execute(connection, "INSERT INTO categories (id, name) "
+                    + "SELECT g, 'Категория ' || g FROM generate_series(1, ?) g", config.categories());
+            execute(connection, "INSERT INTO locations (id, lat, lon) "
+                    + "SELECT g, (g % 180) - 90, (g % 360) - 180 FROM generate_series(1, ?) g", LOCATIONS);
+            execute(connection, "INSERT INTO events (id, annotation, category_id, created_on, description, event_date, "
+                    + "initiator_id, location_id, paid, participant_limit, published_on, request_moderation, state, "
+                    + "title) "
+                    + "SELECT g, 'Аннотация события ' || g || repeat(' для нагрузочного теста', 5), (g % ?) + 1, "
+                    + "now() - (g % 365) * interval '1 day', repeat('Описание события. ', 40), "
+                    + "now() + ((g % 365) + 1) * interval '1 day', (g % ?) + 1, (g % ?) + 1, g % 2 = 0, "
+                    + "(g % 5) * 25, CASE WHEN g % 5 <> 0 THEN now() - (g % 30) * interval '1 day' END, g % 3 <> 0, "
+                    + "CASE WHEN g % 5 <> 0 THEN 'PUBLISHED' WHEN g % 10 = 0 THEN 'PENDING' ELSE 'CANCELED' END, "
+                    + "'Событие ' || g "
+                    + "FROM generate_series(1, ?) g",
+                    config.categories(), config.users(), LOCATIONS, config.events());
+            execute(connection, "INSERT INTO requests (id, created, event_id, requester_id, status) "
+                    + "SELECT g + 1, now() - (g % 1000) * interval '1 minute', (g % ?) + 1, ((g / ?) + (g % ?)) % ? + 1, "
+                    + "CASE WHEN g % 10 < 5 THEN 'CONFIRMED' WHEN g % 10 < 9 THEN 'PENDING' ELSE 'REJECTED' END "
+                    + "FROM generate_series(0, ? - 1) g",
+                    config.events(), config.events(), config.events(), config.users(), config.requests());
+            execute(connection, "INSERT INTO comments (id, text, event_id, author_id, created_on) "
+                    + "SELECT g, 'Комментарий ' || g, (g % ?) + 1, (g % ?) + 1, now() FROM generate_series(1, ?) g",
+                    config.events(), config.users(), config.events());
+            execute(connection, "INSERT INTO compilations (id, pinned, title) "
+                    + "SELECT g, g % 2 = 0, 'Подборка ' || g FROM generate_series(1, ?) g", config.compilations());
+            execute(connection, "INSERT INTO compilation_events (compilation_id, event_id) "
+                    + "SELECT c, ((c * 37 + k * 101) % ?) + 1 "
+                    + "FROM generate_series(1, ?) c, generate_series(0, ? - 1) k ON CONFLICT DO NOTHING",
+                    config.events(), config.compilations(), EVENTS_PER_COMPILATION);
+            try (Statement statement = connection.createStatement()) {
+                for (String table : SEQUENCE_TABLES) {
+                    statement.execute("SELECT setval('" + table + "_seq', "
+                            + "COALESCE((SELECT MAX(id) FROM " + table + "), 0) + 1, false)");
+                }
+                statement.execute("ANALYZE");
+            }
+        }
+        log.info("Данные созданы за {} мс: событий {}, заявок {}, пользователей {}",
+                (System.nanoTime() - started) / 1_000_000, config.events(), config.requests(), config.users());
+    }
+
+    private static void execute(Connection connection, String sql, int... params) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int i = 0; i < params.length; i++) {
+                statement.setInt(i + 1, params[i]);
+            }
+            statement.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package ru.practicum.loadtest;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.main.comment.repository.CommentRepository;
+import ru.practicum.main.event.model.EventState;
+import ru.practicum.main.event.repository.EventRepository;
+import ru.practicum.main.request.model.RequestStatus;
+import ru.practicum.main.request.repository.RequestRepository;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.LongStream;
+
+/**
+ * Вызывает горячие методы репозиториев main-service, перехватывает SQL, который для них построил Hibernate,
+ * вместе с параметрами ({@link SqlCapture}) и прогоняет для него EXPLAIN. Вызовы выполняются в транзакции,
+ * которая откатывается. Нарушением считается Seq Scan по большой таблице или вызов, не выполнивший ни одного
+ * запроса. Запускается на заполненной и проанализированной БД: на пустых таблицах планировщик всегда выбирает
+ * Seq Scan.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class IndexUsageCheck {
+    private static final Pattern SEQ_SCAN = Pattern.compile("Seq Scan on (events|requests|comments)\\b");
+    private static final long EVENT_ID = 1;
+    private static final long USER_ID = 1;
+
+    private final ApplicationContext main;
+    private final DataSource dataSource;
+
+    /**
+     * Возвращает имена вызовов, в плане которых встретился Seq Scan по большой таблице, и печатает планы.
+     */
+    public List<String> run() throws SQLException {
+        SqlCapture capture = main.getBean(SqlCapture.class);
+        TransactionTemplate transaction = new TransactionTemplate(main.getBean(PlatformTransactionManager.class));
+        List<String> violations = new ArrayList<>();
+        StringBuilder report = new StringBuilder();
+        try (Connection connection = dataSource.getConnection()) {
+            for (Map.Entry<String, Runnable> call : hotCalls().entrySet()) {
+                List<SqlCapture.Statement> statements = capture.capture(() ->
+                        transaction.executeWithoutResult(status -> {
+                            status.setRollbackOnly();
+                            call.getValue().run();
+                        }));
+                if (statements.isEmpty()) {
+                    violations.add(call.getKey());
+                    report.append(String.format("%nNO SQL %s", call.getKey()));
+                    continue;
+                }
+                for (SqlCapture.Statement statement : statements) {
+                    List<String> plan = explain(connection, statement);
+                    boolean seqScan = plan.stream().anyMatch(line -> SEQ_SCAN.matcher(line).find());
+                    if (seqScan && !violations.contains(call.getKey())) {
+                        violations.add(call.getKey());
+                    }
+                    report.append(String.format("%n%s %s%n      %s", seqScan ? "SEQ  " : "INDEX", call.getKey(),
+                            statement.sql()));
+                    plan.forEach(line -> report.append(String.format("%n      %s", line)));
+                }
+            }
+        }
+        log.info("Планы горячих запросов:{}", report);
+        return violations;
+    }
+
+    /**
+     * Вызовы с теми же аргументами, что передают сервисы main-service для типичных запросов API.
+     */
+    private Map<String, Runnable> hotCalls() {
+        EventRepository events = main.getBean(EventRepository.class);
+        RequestRepository requests = main.getBean(RequestRepository.class);
+        CommentRepository comments = main.getBean(CommentRepository.class);
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, Runnable> calls = new LinkedHashMap<>();
+        calls.put("EventRepository.findEventsForPublic", () -> events.findEventsForPublic("", List.of(), null,
+                now, now.plusDays(7), false, PageRequest.of(0, 10, Sort.by(Sort.Direction.ASC, "eventDate"))));
+        calls.put("EventRepository.findEventsForAdmin", () -> events.findEventsForAdmin(null,
+                List.of(EventState.PUBLISHED), null, now, now.plusDays(3), PageRequest.of(0, 10)));
+        calls.put("EventRepository.findByInitiatorId", () -> events.findByInitiatorId(USER_ID,
+                PageRequest.of(0, 10, Sort.by("id"))));
+        calls.put("EventRepository.existsByCategoryId", () -> events.existsByCategoryId(1L));
+        calls.put("RequestRepository.countByEventIdAndStatus", () -> requests.countByEventIdAndStatus(EVENT_ID,
+                RequestStatus.CONFIRMED));
+        calls.put("RequestRepository.countConfirmedRequestsForEvents", () ->
+                requests.countConfirmedRequestsForEvents(LongStream.rangeClosed(1, 10).boxed().toList()));
+        calls.put("RequestRepository.findPageByEventIdAndInitiatorId", () -> requests.findPageByEventIdAndInitiatorId(
+                EVENT_ID, events.findById(EVENT_ID).orElseThrow().getInitiator().getId(),
+                EnumSet.allOf(RequestStatus.class), 0, Pageable.unpaged()));
+        calls.put("RequestRepository.findPageByRequesterId", () -> requests.findPageByRequesterId(USER_ID,
+                EnumSet.allOf(RequestStatus.class), 0, Pageable.unpaged()));
+        calls.put("RequestRepository.moderateAllPending", () -> requests.moderateAllPending(EVENT_ID, 10));
+        calls.put("CommentRepository.findAllByEventId", () -> comments.findAllByEventId(EVENT_ID,
+                PageRequest.of(0, 10)));
+        return calls;
+    }
+
+    private static List<String> explain(Connection connection, SqlCapture.Statement statement) throws SQLException {
+        List<String> plan = new ArrayList<>();
+        try (PreparedStatement explain = connection.prepareStatement("EXPLAIN " + statement.sql())) {
+            statement.bind(explain);
+            try (ResultSet rows = explain.executeQuery()) {
+                while (rows.next()) {
+                    plan.add(rows.getString(1));
+                }
+            }
+        }
+        return plan;
+    }
+}
@@ -0,0 +1,96 @@
+package ru.practicum.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Задержки по каждому типу запроса. Значения хранятся целиком, поэтому перцентили точные.
+ */
+@Slf4j
+public class LatencyReport {
+    private final Map<String, Recorder> recorders = new TreeMap<>();
+    private Duration elapsed = Duration.ZERO;
+
+    public synchronized Recorder recorder(String operation) {
+        return recorders.computeIfAbsent(operation, key -> new Recorder());
+    }
+
+    public void setElapsed(Duration elapsed) {
+        this.elapsed = elapsed;
+    }
+
+    public List<Row> rows() {
+        List<Row> rows = new ArrayList<>();
+        double seconds = Math.max(elapsed.toMillis(), 1) / 1000.0;
+        recorders.forEach((operation, recorder) -> {
+            long[] sorted = recorder.snapshot();
+            Arrays.sort(sorted);
+            rows.add(new Row(operation, sorted.length, recorder.errors(), sorted.length / seconds,
+                    percentile(sorted, 0.50), percentile(sorted, 0.99),
+                    sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1_000_000.0));
+        });
+        return rows;
+    }
+
+    public void print() {
+        StringBuilder table = new StringBuilder(String.format("%n%-22s %9s %7s %10s %9s %9s %9s%n",
+                "operation", "count", "errors", "req/s", "p50 ms", "p99 ms", "max ms"));
+        for (Row row : rows()) {
+            table.append(String.format(Locale.ROOT, "%-22s %9d %7d %10.1f %9.2f %9.2f %9.2f%n", row.operation(),
+                    row.count(), row.errors(), row.throughput(), row.p50(), row.p99(), row.max()));
+        }
+        log.info("Результаты нагрузочного теста за {} с:{}", elapsed.toSeconds(), table);
+    }
+
+    public void writeCsv(Path path) throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add("operation,count,errors,throughput,p50_ms,p99_ms,max_ms");
+        for (Row row : rows()) {
+            lines.add(String.format(Locale.ROOT, "%s,%d,%d,%.2f,%.3f,%.3f,%.3f", row.operation(), row.count(),
+                    row.errors(), row.throughput(), row.p50(), row.p99(), row.max()));
+        }
+        Files.write(path, lines);
+        log.info("Отчёт сохранён в {}", path.toAbsolutePath());
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1_000_000.0;
+    }
+
+    public record Row(String operation, long count, long errors, double throughput, double p50, double p99,
+                      double max) {
+    }
+
+    public static final class Recorder {
+        private long[] values = new long[1024];
+        private int size;
+        private long errors;
+
+        public synchronized void record(long nanos, boolean success) {
+            if (!success) {
+                errors++;
+            }
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = nanos;
+        }
+
+        synchronized long[] snapshot() {
+            return Arrays.copyOf(values, size);
+        }
+
+        synchronized long errors() {
+            return errors;
+        }
+    }
+}
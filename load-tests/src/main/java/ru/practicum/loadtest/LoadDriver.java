@@ -0,0 +1,128 @@
+package ru.practicum.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Нагружает main-service заданной смесью запросов из фиксированного числа потоков.
+ * Запросы, выполненные во время прогрева, в отчёт не попадают.
+ */
+@Slf4j
+public class LoadDriver {
+    private final String baseUrl;
+    private final LoadTestConfig config;
+    private final HttpClient client;
+    private final Map<String, Function<Random, String>> operations = new HashMap<>();
+    private final List<String> weighted = new ArrayList<>();
+
+    public LoadDriver(String baseUrl, LoadTestConfig config) {
+        this.baseUrl = baseUrl;
+        this.config = config;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        register();
+        config.mix().forEach((operation, weight) -> {
+            if (!operations.containsKey(operation)) {
+                throw new IllegalArgumentException("Неизвестная операция в смеси: " + operation
+                        + ". Доступны: " + new TreeSet<>(operations.keySet()));
+            }
+            for (int i = 0; i < weight; i++) {
+                weighted.add(operation);
+            }
+        });
+    }
+
+    public LatencyReport run() throws InterruptedException {
+        LatencyReport report = new LatencyReport();
+        long warmupEnd = System.nanoTime() + config.warmup().toNanos();
+        long end = warmupEnd + config.duration().toNanos();
+        log.info("Прогрев {} с, замер {} с, потоков {}, смесь {}", config.warmup().toSeconds(),
+                config.duration().toSeconds(), config.concurrency(), config.mix());
+
+        ExecutorService workers = Executors.newFixedThreadPool(config.concurrency());
+        for (int worker = 0; worker < config.concurrency(); worker++) {
+            Random random = new Random(config.seed() + worker);
+            workers.submit(() -> loop(random, report, warmupEnd, end));
+        }
+        workers.shutdown();
+        workers.awaitTermination(config.warmup().plus(config.duration()).toSeconds() + 60, TimeUnit.SECONDS);
+        report.setElapsed(config.duration());
+        return report;
+    }
+
+    private void loop(Random random, LatencyReport report, long warmupEnd, long end) {
+        while (System.nanoTime() < end) {
+            String operation = weighted.get(random.nextInt(weighted.size()));
+            HttpRequest request = operation.startsWith("post:")
+                    ? post(operations.get(operation).apply(random))
+                    : get(operations.get(operation).apply(random));
+            long started = System.nanoTime();
+            boolean success;
+            try {
+                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                success = response.statusCode() < 400;
+            } catch (IOException e) {
+                success = false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            long finished = System.nanoTime();
+            if (started >= warmupEnd && finished <= end) {
+                report.recorder(operation).record(finished - started, success);
+            }
+        }
+    }
+
+    private void register() {
+        operations.put("public.event", random -> "/events/" + publishedEvent(random));
+        operations.put("public.events", random -> "/events?sort=EVENT_DATE&from=" + random.nextInt(10) * 10
+                + "&size=10&categories=" + (random.nextInt(config.categories()) + 1));
+        operations.put("public.categories", random -> "/categories?from=0&size=10");
+        operations.put("public.compilations", random -> "/compilations?pinned=true&from=0&size=10");
+        operations.put("public.comments", random -> "/events/" + publishedEvent(random) + "/comments");
+        operations.put("private.events", random -> "/users/" + user(random) + "/events?from=0&size=10");
+        operations.put("private.requests", random -> "/users/" + user(random) + "/requests");
+        operations.put("post:private.request", random -> "/users/" + user(random) + "/requests?eventId="
+                + publishedEvent(random));
+        operations.put("admin.events", random -> "/admin/events?states=PUBLISHED&categories="
+                + (random.nextInt(config.categories()) + 1) + "&from=0&size=10");
+        operations.put("admin.users", random -> "/admin/users?from=" + random.nextInt(100) * 10 + "&size=10");
+    }
+
+    private long publishedEvent(Random random) {
+        long id = random.nextInt(config.events()) + 1;
+        return id % 5 == 0 ? id - 1 : id;
+    }
+
+    private long user(Random random) {
+        return random.nextInt(config.users()) + 1;
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+    }
+
+    private HttpRequest post(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+    }
+}
@@ -0,0 +1,79 @@
+package ru.practicum.loadtest;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.main.MainApplication;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Запускает main-service на встроенном PostgreSQL с заглушкой stats-app, заполняет БД и снимает задержки.
+ */
+@Slf4j
+public class LoadTestApplication {
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.parse(args);
+
+        try (EmbeddedPostgres postgres = EmbeddedPostgres.builder()
+                .setServerConfig("max_connections", "200")
+                .start();
+             StubStatsServer stats = new StubStatsServer(config.events(), config.hits(), config.statsLatencyMillis());
+             ConfigurableApplicationContext main = startMain(postgres, stats, config)) {
+            new DataSeeder(postgres.getPostgresDatabase(), config).seed();
+
+            List<String> seqScans = new IndexUsageCheck(main, postgres.getPostgresDatabase()).run();
+            if (config.indexCheck() && !seqScans.isEmpty()) {
+                throw new IllegalStateException("Горячие запросы без индекса: " + seqScans);
+            }
+
+            int port = ((WebServerApplicationContext) main).getWebServer().getPort();
+            LatencyReport report = new LoadDriver("http://127.0.0.1:" + port, config).run();
+
+            report.print();
+            if (config.report() != null) {
+                report.writeCsv(config.report());
+            }
+            logPoolSaturation(main.getBean(MeterRegistry.class), config.profile());
+            log.info("Заглушка статистики получила {} хитов", stats.received());
+        }
+    }
+
+    /**
+     * Запускает main-service на встроенном PostgreSQL с перехватом SQL для {@link IndexUsageCheck}.
+     */
+    static ConfigurableApplicationContext startMain(EmbeddedPostgres postgres, StubStatsServer stats,
+                                                    LoadTestConfig config) {
+        return new SpringApplicationBuilder(MainApplication.class, SqlCapture.class).run(
+                "--server.port=0",
+                "--spring.profiles.active=" + config.profile(),
+                "--spring.threads.virtual.enabled=" + config.virtualThreads(),
+                "--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                "--spring.datasource.username=postgres",
+                "--spring.datasource.password=",
+                "--stats.url=http://127.0.0.1:" + stats.port(),
+                "--events.trending.enabled=false",
+                "--logging.level.ru.practicum.main=WARN",
+                "--logging.level.ru.practicum.stats.client=WARN");
+    }
+
+    private static void logPoolSaturation(MeterRegistry registry, String profile) {
+        for (Timer acquire : registry.find("hikaricp.connections.acquire").timers()) {
+            String pool = acquire.getId().getTag("pool");
+            double timeouts = registry.find("hikaricp.connections.timeout").tag("pool", pool).counters().stream()
+                    .mapToDouble(Counter::count)
+                    .sum();
+            log.info("Пул {} (профиль {}): соединений выдано {}, ожидание в среднем {} мс, максимум {} мс, "
+                            + "таймаутов {}", pool, profile, acquire.count(),
+                    String.format(Locale.ROOT, "%.3f", acquire.mean(TimeUnit.MILLISECONDS)),
+                    String.format(Locale.ROOT, "%.3f", acquire.max(TimeUnit.MILLISECONDS)), (long) timeouts);
+        }
+    }
+}
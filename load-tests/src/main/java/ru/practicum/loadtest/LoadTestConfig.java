@@ -0,0 +1,70 @@
+package ru.practicum.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Параметры прогона. Передаются аргументами вида --events=100000 --mix=public.event=50,admin.events=10.
+ */
+public record LoadTestConfig(int events,
+                             int requests,
+                             long hits,
+                             int users,
+                             int categories,
+                             int compilations,
+                             int concurrency,
+                             Duration warmup,
+                             Duration duration,
+                             Map<String, Integer> mix,
+                             Path report,
+                             long seed,
+                             boolean indexCheck,
+                             String profile,
+                             boolean virtualThreads,
+                             long statsLatencyMillis) {
+    static final String DEFAULT_MIX = "public.event=35,public.events=20,public.categories=5,public.compilations=5,"
+            + "public.comments=5,private.events=10,private.requests=10,admin.events=5,admin.users=5";
+
+    public static LoadTestConfig parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Ожидается аргумент вида --name=value: " + arg);
+            }
+            values.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        int events = Integer.parseInt(values.getOrDefault("events", "100000"));
+        return new LoadTestConfig(
+                events,
+                Integer.parseInt(values.getOrDefault("requests", "1000000")),
+                Long.parseLong(values.getOrDefault("hits", "10000000")),
+                Integer.parseInt(values.getOrDefault("users", String.valueOf(Math.max(events / 10, 100)))),
+                Integer.parseInt(values.getOrDefault("categories", "100")),
+                Integer.parseInt(values.getOrDefault("compilations", "100")),
+                Integer.parseInt(values.getOrDefault("concurrency", "32")),
+                Duration.ofSeconds(Long.parseLong(values.getOrDefault("warmup", "15"))),
+                Duration.ofSeconds(Long.parseLong(values.getOrDefault("duration", "60"))),
+                parseMix(values.getOrDefault("mix", DEFAULT_MIX)),
+                values.containsKey("report") ? Path.of(values.get("report")) : null,
+                Long.parseLong(values.getOrDefault("seed", "42")),
+                Boolean.parseBoolean(values.getOrDefault("index-check", "true")),
+                values.getOrDefault("profile", "default"),
+                Boolean.parseBoolean(values.getOrDefault("virtual-threads", "false")),
+                Long.parseLong(values.getOrDefault("stats-latency-ms", "0")));
+    }
+
+    private static Map<String, Integer> parseMix(String mix) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split("=");
+            int weight = Integer.parseInt(parts[1]);
+            if (weight > 0) {
+                weights.put(parts[0], weight);
+            }
+        }
+        return weights;
+    }
+}
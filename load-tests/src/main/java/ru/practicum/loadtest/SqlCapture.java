@@ -0,0 +1,125 @@
+package ru.practicum.loadtest;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Оборачивает DataSource main-service и запоминает SQL и параметры, с которыми Hibernate выполняет запросы
+ * внутри {@link #capture(Runnable)} в текущем потоке. Остальные запросы проходят без изменений.
+ */
+public class SqlCapture implements BeanPostProcessor {
+    private static final String DATA_SOURCE_BEAN = "dataSource";
+
+    private final ThreadLocal<List<Statement>> captured = new ThreadLocal<>();
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && DATA_SOURCE_BEAN.equals(beanName)) {
+            return new DelegatingDataSource(dataSource) {
+                @Override
+                public Connection getConnection() throws SQLException {
+                    return connection(super.getConnection());
+                }
+
+                @Override
+                public Connection getConnection(String username, String password) throws SQLException {
+                    return connection(super.getConnection(username, password));
+                }
+            };
+        }
+        return bean;
+    }
+
+    /**
+     * Выполняет action и возвращает подготовленные выражения, выполненные за это время в текущем потоке.
+     */
+    public List<Statement> capture(Runnable action) {
+        List<Statement> statements = new ArrayList<>();
+        captured.set(statements);
+        try {
+            action.run();
+        } finally {
+            captured.remove();
+        }
+        return statements;
+    }
+
+    private Connection connection(Connection target) {
+        return proxy(Connection.class, target, (method, args) -> {
+            Object result = invoke(method, target, args);
+            if (method.getName().equals("prepareStatement")) {
+                return statement((PreparedStatement) result, (String) args[0]);
+            }
+            return result;
+        });
+    }
+
+    private PreparedStatement statement(PreparedStatement target, String sql) {
+        Map<Integer, Binding> bindings = new TreeMap<>();
+        return proxy(PreparedStatement.class, target, (method, args) -> {
+            String name = method.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                bindings.put(index, new Binding(method, args.clone()));
+            } else if (name.equals("clearParameters")) {
+                bindings.clear();
+            } else if (name.startsWith("execute") && (args == null || args.length == 0)) {
+                List<Statement> statements = captured.get();
+                if (statements != null) {
+                    statements.add(new Statement(sql, List.copyOf(bindings.values())));
+                }
+            }
+            return invoke(method, target, args);
+        });
+    }
+
+    private static Object invoke(Method method, Object target, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target, Handler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> handler.handle(method, args));
+    }
+
+    private interface Handler {
+        Object handle(Method method, Object[] args) throws Throwable;
+    }
+
+    record Binding(Method setter, Object[] args) {
+    }
+
+    /**
+     * Выполненный запрос: SQL в том виде, в каком его построил Hibernate, и вызовы set* для его параметров.
+     */
+    public record Statement(String sql, List<Binding> bindings) {
+        /**
+         * Повторяет привязку параметров на другом выражении, например на EXPLAIN того же SQL.
+         */
+        public void bind(PreparedStatement target) throws SQLException {
+            for (Binding binding : bindings) {
+                try {
+                    binding.setter().invoke(target, binding.args());
+                } catch (ReflectiveOperationException e) {
+                    throw new SQLException("Не удалось привязать параметр " + binding.args()[0], e);
+                }
+            }
+        }
+    }
+}
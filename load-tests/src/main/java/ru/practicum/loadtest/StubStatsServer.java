@@ -0,0 +1,126 @@
+package ru.practicum.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Заглушка stats-app: принимает хиты без сохранения и отвечает на /stats детерминированными числами просмотров.
+ * Суммарный объём просмотров по всем событиям равен заданному числу хитов и распределён неравномерно,
+ * чтобы часть событий была заметно популярнее остальных. Задержка ответа имитирует сетевой вызов удалённого сервиса.
+ */
+@Slf4j
+public class StubStatsServer implements AutoCloseable {
+    private final HttpServer server;
+    private final long[] views;
+    private final AtomicLong received = new AtomicLong();
+    private final long latencyMillis;
+
+    public StubStatsServer(int events, long hits, long latencyMillis) throws IOException {
+        this.views = distribute(events, hits);
+        this.latencyMillis = latencyMillis;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/hit", this::hit);
+        server.createContext("/stats", this::stats);
+        server.start();
+        log.info("Заглушка сервиса статистики запущена на порту {}", port());
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    public long received() {
+        return received.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void pause() {
+        if (latencyMillis > 0) {
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void hit(HttpExchange exchange) throws IOException {
+        pause();
+        exchange.getRequestBody().readAllBytes();
+        received.incrementAndGet();
+        exchange.sendResponseHeaders(201, -1);
+        exchange.close();
+    }
+
+    private void stats(HttpExchange exchange) throws IOException {
+        pause();
+        List<String> uris = new ArrayList<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query != null) {
+            for (String param : query.split("&")) {
+                if (param.startsWith("uris=")) {
+                    uris.add(URLDecoder.decode(param.substring(5), StandardCharsets.UTF_8));
+                }
+            }
+        }
+
+        StringBuilder body = new StringBuilder("[");
+        for (String uri : uris) {
+            long hits = viewsOf(uri);
+            if (hits > 0) {
+                if (body.length() > 1) {
+                    body.append(',');
+                }
+                body.append("{\"app\":\"ewm-main-service\",\"uri\":\"").append(uri).append("\",\"hits\":")
+                        .append(hits).append('}');
+            }
+        }
+        byte[] bytes = body.append(']').toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private long viewsOf(String uri) {
+        if (!uri.startsWith("/events/")) {
+            return 0;
+        }
+        try {
+            int id = Integer.parseInt(uri.substring("/events/".length()));
+            return id >= 1 && id <= views.length ? views[id - 1] : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static long[] distribute(int events, long hits) {
+        long[] result = new long[events];
+        double total = 0;
+        for (int i = 1; i <= events; i++) {
+            total += 1.0 / i;
+        }
+        for (int i = 1; i <= events; i++) {
+            int id = (int) ((i * 2654435761L) % events);
+            result[id] = Math.round(hits / total / i);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,23 @@
+package ru.practicum.loadtest;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IndexUsageCheckTest {
+    @Test
+    @DisplayName("SQL горячих методов репозиториев на заполненной БД не должен читать большие таблицы целиком")
+    void run_ShouldFindNoSeqScans() throws Exception {
+        LoadTestConfig config = LoadTestConfig.parse(new String[]{"--events=20000", "--requests=200000"});
+        try (EmbeddedPostgres postgres = EmbeddedPostgres.start();
+             StubStatsServer stats = new StubStatsServer(config.events(), config.hits(), 0);
+             ConfigurableApplicationContext main = LoadTestApplication.startMain(postgres, stats, config)) {
+            new DataSeeder(postgres.getPostgresDatabase(), config).seed();
+
+            assertThat(new IndexUsageCheck(main, postgres.getPostgresDatabase()).run()).isEmpty();
+        }
+    }
+}
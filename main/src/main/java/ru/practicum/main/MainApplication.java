@@ -2,8 +2,10 @@ package ru.practicum.main;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
-@SpringBootApplication(scanBasePackages = {"ru.practicum.main", "ru.practicum.stats.client"})
+@EnableScheduling
+@SpringBootApplication(scanBasePackages = {"ru.practicum.main", "ru.practicum.stats.client", "ru.practicum.common"})
 public class MainApplication {
 
     public static void main(String[] args) {
@@ -52,6 +52,10 @@ public class CategoryServiceImpl implements CategoryService {
             throw new ConflictException("Категория с названием " + categoryDto.getName() + " уже существует");
         }
 
+        if (!existingCategory.getName().equals(categoryDto.getName())) {
+            int events = eventRepository.incrementVersionByCategoryId(catId);
+            log.debug("Версия {} событий категории ID: {} увеличена", events, catId);
+        }
         existingCategory.setName(categoryDto.getName());
         Category updatedCategory = categoryRepository.save(existingCategory);
 
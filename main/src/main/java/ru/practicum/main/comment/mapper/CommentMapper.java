@@ -16,6 +16,7 @@ public interface CommentMapper {
     @Mapping(target = "author", source = "author")
     @Mapping(target = "createdOn", expression = "java(java.time.LocalDateTime.now())")
     @Mapping(target = "editedOn", ignore = true)
+    @Mapping(target = "version", ignore = true)
     Comment toComment(NewCommentDto newCommentDto, Event event, User author);
 
     @Mapping(target = "eventId", source = "event.id")
@@ -7,10 +7,13 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.main.compilation.dto.CompilationDto;
+import ru.practicum.main.etag.ETagged;
 import ru.practicum.main.compilation.service.CompilationService;
 
 import java.util.List;
+import java.util.Optional;
 
 @Slf4j
 @Validated
@@ -30,9 +33,16 @@ public class PublicCompilationController {
     }
 
     @GetMapping("/{compId}")
-    @ResponseStatus(HttpStatus.OK)
-    public CompilationDto getCompilationById(@PathVariable Long compId) {
+    public CompilationDto getCompilationById(@PathVariable Long compId, WebRequest webRequest) {
         log.info("Получение подборки по ID: {}", compId);
-        return compilationService.getCompilationById(compId);
+        Optional<String> etag = compilationService.getCompilationETag(compId);
+        if (etag.isPresent() && webRequest.checkNotModified(etag.get())) {
+            return null;
+        }
+        ETagged<CompilationDto> compilation = compilationService.getCompilationById(compId);
+        if (webRequest.checkNotModified(compilation.etag())) {
+            return null;
+        }
+        return compilation.body();
     }
 }
@@ -15,7 +15,8 @@ import java.util.Set;
 @Table(name = "compilations")
 public class Compilation {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "compilations_seq")
+    @SequenceGenerator(name = "compilations_seq", sequenceName = "compilations_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -24,6 +25,9 @@ public class Compilation {
     @Column(nullable = false, unique = true)
     private String title;
 
+    @Version
+    private Long version;
+
     @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(name = "compilation_events", joinColumns = @JoinColumn(name = "compilation_id"),
             inverseJoinColumns = @JoinColumn(name = "event_id"))
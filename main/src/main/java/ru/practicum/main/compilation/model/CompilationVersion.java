@@ -0,0 +1,7 @@
+package ru.practicum.main.compilation.model;
+
+/**
+ * Версия подборки вместе с числом и суммой версий входящих в неё событий.
+ */
+public record CompilationVersion(Long version, Long events, Long eventVersions) {
+}
@@ -3,7 +3,10 @@ package ru.practicum.main.compilation.repository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.main.compilation.model.Compilation;
+import ru.practicum.main.compilation.model.CompilationVersion;
 
 import java.util.Optional;
 
@@ -11,4 +14,11 @@ public interface CompilationRepository extends JpaRepository<Compilation, Long>
     Page<Compilation> findByPinned(Boolean pinned, Pageable pageable);
 
     Optional<Compilation> findByTitle(String title);
+
+    @Query("SELECT new ru.practicum.main.compilation.model.CompilationVersion(c.version, COUNT(e.id), " +
+            "COALESCE(SUM(e.version), 0L)) " +
+            "FROM Compilation c LEFT JOIN c.events e " +
+            "WHERE c.id = :compId " +
+            "GROUP BY c.id, c.version")
+    Optional<CompilationVersion> findVersionById(@Param("compId") Long compId);
 }
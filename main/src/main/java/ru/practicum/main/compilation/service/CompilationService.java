@@ -3,8 +3,10 @@ package ru.practicum.main.compilation.service;
 import ru.practicum.main.compilation.dto.CompilationDto;
 import ru.practicum.main.compilation.dto.NewCompilationDto;
 import ru.practicum.main.compilation.dto.UpdateCompilationRequest;
+import ru.practicum.main.etag.ETagged;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface CompilationService {
 
@@ -16,5 +18,14 @@ public interface CompilationService {
 
     List<CompilationDto> getCompilations(Boolean pinned, int from, int size);
 
-    CompilationDto getCompilationById(Long compId);
+    /**
+     * Подборка вместе с ETag из версий подборки и её событий и показанных просмотров.
+     */
+    ETagged<CompilationDto> getCompilationById(Long compId);
+
+    /**
+     * ETag по одному агрегатному запросу версий и запомненной отметке просмотров; пусто, если отметки нет
+     * или она устарела и подборку нужно собрать заново.
+     */
+    Optional<String> getCompilationETag(Long compId);
 }
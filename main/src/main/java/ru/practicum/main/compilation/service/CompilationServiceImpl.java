@@ -10,7 +10,12 @@ import ru.practicum.main.compilation.dto.NewCompilationDto;
 import ru.practicum.main.compilation.dto.UpdateCompilationRequest;
 import ru.practicum.main.compilation.mapper.CompilationMapper;
 import ru.practicum.main.compilation.model.Compilation;
+import ru.practicum.main.compilation.model.CompilationVersion;
 import ru.practicum.main.compilation.repository.CompilationRepository;
+import ru.practicum.main.etag.ETagged;
+import ru.practicum.main.etag.ETags;
+import ru.practicum.main.etag.ViewsCache;
+import ru.practicum.main.event.dto.EventShortDto;
 import ru.practicum.main.event.model.Event;
 import ru.practicum.main.event.repository.EventRepository;
 import ru.practicum.main.event.service.EventService;
@@ -25,10 +30,13 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class CompilationServiceImpl implements CompilationService {
+    private static final String COMPILATION_ETAG = "compilation";
+
     private final CompilationRepository compilationRepository;
     private final EventRepository eventRepository;
     private final CompilationMapper compilationMapper;
     private final EventService eventService;
+    private final ViewsCache viewsCache;
 
     @Transactional
     public CompilationDto createCompilation(NewCompilationDto newCompilationDto) {
@@ -139,14 +147,45 @@ public class CompilationServiceImpl implements CompilationService {
                 .collect(Collectors.toList());
     }
 
-    public CompilationDto getCompilationById(Long compId) {
+    public ETagged<CompilationDto> getCompilationById(Long compId) {
         log.info("Получение подборки по ID: {}", compId);
 
+        CompilationVersion version = findVersion(compId);
         Compilation compilation = compilationRepository.findById(compId)
                 .orElseThrow(() -> new NotFoundException("Подборка с ID " + compId + " не найдена"));
+        CompilationDto dto = getFullCompilationDto(compilation);
+        long views = viewsStamp(dto.getEvents());
+        viewsCache.put(COMPILATION_ETAG, compId, views);
 
         log.info("Подборка ID: {} найдена", compId);
-        return getFullCompilationDto(compilation);
+        return new ETagged<>(dto, etag(compId, version, views));
+    }
+
+    public Optional<String> getCompilationETag(Long compId) {
+        CompilationVersion version = findVersion(compId);
+        if (version.events() == 0) {
+            return Optional.of(etag(compId, version, viewsStamp(List.of())));
+        }
+        OptionalLong views = viewsCache.get(COMPILATION_ETAG, compId);
+        return views.isPresent() ? Optional.of(etag(compId, version, views.getAsLong())) : Optional.empty();
+    }
+
+    private CompilationVersion findVersion(Long compId) {
+        return compilationRepository.findVersionById(compId)
+                .orElseThrow(() -> new NotFoundException("Подборка с ID " + compId + " не найдена"));
+    }
+
+    private static String etag(Long compId, CompilationVersion version, long views) {
+        return ETags.of(COMPILATION_ETAG, compId, version.version(), version.events(), version.eventVersions(), views);
+    }
+
+    private static long viewsStamp(List<EventShortDto> events) {
+        long stamp = 1;
+        for (EventShortDto event : events.stream().sorted(Comparator.comparing(EventShortDto::getId)).toList()) {
+            stamp = 31 * stamp + event.getId();
+            stamp = 31 * stamp + event.getViews();
+        }
+        return stamp;
     }
 
     private CompilationDto getFullCompilationDto(Compilation compilation) {
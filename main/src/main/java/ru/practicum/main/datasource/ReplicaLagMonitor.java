@@ -0,0 +1,71 @@
+package ru.practicum.main.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Периодически измеряет отставание реплики. Пока реплика недоступна или отстаёт больше max-lag-ms,
+ * читающие транзакции уходят на основную базу. До первой успешной проверки реплика считается недоступной.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+    static final String LAG_QUERY = "SELECT CASE WHEN NOT pg_is_in_recovery() "
+            + "OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+            + "ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000 END";
+
+    private final DataSource replica;
+    private final long maxLagMillis;
+
+    private volatile boolean available;
+    private volatile double lagMillis = Double.NaN;
+
+    public ReplicaLagMonitor(DataSource replica, long maxLagMillis, MeterRegistry registry) {
+        this.replica = replica;
+        this.maxLagMillis = maxLagMillis;
+        Gauge.builder("datasource.replica.lag", this, monitor -> monitor.lagMillis)
+                .baseUnit("milliseconds")
+                .description("Отставание реплики по последней проверке")
+                .register(registry);
+        Gauge.builder("datasource.replica.available", this, monitor -> monitor.available ? 1 : 0)
+                .description("1, если читающие транзакции направляются на реплику")
+                .register(registry);
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.replica.lag-check-ms:1000}")
+    public void check() {
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery(LAG_QUERY)) {
+            rows.next();
+            update(rows.getDouble(1));
+        } catch (SQLException e) {
+            lagMillis = Double.NaN;
+            if (available) {
+                log.warn("Реплика недоступна, чтение переключено на основную базу: {}", e.getMessage());
+            }
+            available = false;
+        }
+    }
+
+    void update(double lagMillis) {
+        this.lagMillis = lagMillis;
+        boolean withinLag = lagMillis <= maxLagMillis;
+        if (withinLag != available) {
+            log.warn(withinLag ? "Реплика догнала основную базу (отставание {} мс), чтение возвращено на реплику"
+                    : "Отставание реплики {} мс превышает допустимое, чтение переключено на основную базу", lagMillis);
+        }
+        available = withinLag;
+    }
+}
@@ -0,0 +1,21 @@
+package ru.practicum.main.etag;
+
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+
+/**
+ * Категории и список подборок дёшево строятся и не имеют общей версии, поэтому для них ETag считается
+ * по телу ответа: экономится трафик, а не работа сервера.
+ */
+@Configuration
+public class ETagConfig {
+    @Bean
+    public FilterRegistrationBean<ShallowEtagHeaderFilter> shallowEtagHeaderFilter() {
+        FilterRegistrationBean<ShallowEtagHeaderFilter> registration =
+                new FilterRegistrationBean<>(new ShallowEtagHeaderFilter());
+        registration.addUrlPatterns("/categories", "/categories/*", "/compilations");
+        return registration;
+    }
+}
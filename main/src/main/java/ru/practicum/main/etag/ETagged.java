@@ -0,0 +1,7 @@
+package ru.practicum.main.etag;
+
+/**
+ * Тело ответа вместе с ETag, посчитанным по тем же значениям, из которых собрано тело.
+ */
+public record ETagged<T>(T body, String etag) {
+}
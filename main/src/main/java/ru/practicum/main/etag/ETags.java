@@ -0,0 +1,19 @@
+package ru.practicum.main.etag;
+
+/**
+ * ETag из версии сущности и остальных значений, от которых зависит тело ответа. Подтверждение и отмена заявок
+ * и переименование категории увеличивают версию события, а просмотры — нет, поэтому они передаются отдельной
+ * отметкой из {@link ViewsCache}. Пользователи не переименовываются, их имена в отметку не входят.
+ */
+public final class ETags {
+    private ETags() {
+    }
+
+    public static String of(String kind, Long id, long... stamps) {
+        StringBuilder etag = new StringBuilder("\"").append(kind).append('-').append(id);
+        for (long stamp : stamps) {
+            etag.append('-').append(stamp);
+        }
+        return etag.append('"').toString();
+    }
+}
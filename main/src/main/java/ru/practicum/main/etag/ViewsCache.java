@@ -0,0 +1,57 @@
+package ru.practicum.main.etag;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Просмотры, попавшие в последний собранный ответ, для ETag без обращения к сервису статистики. Запись живёт
+ * etag.views-ttl-ms: пока она есть, совпадающий If-None-Match даёт 304, после — ответ собирается заново и запись
+ * обновляется. Число записей ограничено etag.views-cache-size; при переполнении новые ответы просто не кэшируются.
+ */
+@Component
+public class ViewsCache {
+    private final long ttlNanos;
+    private final int maxSize;
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    public ViewsCache(@Value("${etag.views-ttl-ms:60000}") long ttlMillis,
+                      @Value("${etag.views-cache-size:10000}") int maxSize) {
+        this.ttlNanos = ttlMillis * 1_000_000;
+        this.maxSize = maxSize;
+    }
+
+    public OptionalLong get(String kind, Long id) {
+        String key = key(kind, id);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return OptionalLong.empty();
+        }
+        if (System.nanoTime() - entry.storedAt() >= ttlNanos) {
+            entries.remove(key, entry);
+            return OptionalLong.empty();
+        }
+        return OptionalLong.of(entry.views());
+    }
+
+    public void put(String kind, Long id, long views) {
+        if (entries.size() >= maxSize) {
+            long now = System.nanoTime();
+            entries.values().removeIf(entry -> now - entry.storedAt() >= ttlNanos);
+            if (entries.size() >= maxSize) {
+                return;
+            }
+        }
+        entries.put(key(kind, id), new Entry(views, System.nanoTime()));
+    }
+
+    private static String key(String kind, Long id) {
+        return kind + '-' + id;
+    }
+
+    private record Entry(long views, long storedAt) {
+    }
+}
@@ -11,6 +11,7 @@ import org.springframework.web.bind.annotation.*;
 import ru.practicum.main.event.dto.*;
 import ru.practicum.main.event.service.EventService;
 import ru.practicum.main.request.dto.ParticipationRequestDto;
+import ru.practicum.main.request.model.RequestStatus;
 
 import java.util.List;
 
@@ -59,9 +60,13 @@ public class PrivateEventController {
     @GetMapping("/{eventId}/requests")
     @ResponseStatus(HttpStatus.OK)
     public List<ParticipationRequestDto> getEventRequests(@PathVariable Long userId,
-                                                          @PathVariable Long eventId) {
-        log.info("Получение запросов на участие для события ID: {} пользователя ID: {}", eventId, userId);
-        return eventService.getEventRequests(userId, eventId);
+                                                          @PathVariable Long eventId,
+                                                          @RequestParam(required = false) RequestStatus status,
+                                                          @RequestParam(defaultValue = "0") @PositiveOrZero long after,
+                                                          @RequestParam(required = false) @Positive Integer size) {
+        log.info("Получение запросов на участие для события ID: {} пользователя ID: {}, статус: {}, after: {}, " +
+                "size: {}", eventId, userId, status, after, size);
+        return eventService.getEventRequests(userId, eventId, status, after, size);
     }
 
     @PatchMapping("/{eventId}/requests")
@@ -74,4 +79,12 @@ public class PrivateEventController {
                 "Запросы: {}", eventId, userId, updateRequest.getRequestIds());
         return eventService.updateEventRequestStatus(userId, eventId, updateRequest);
     }
+
+    @PostMapping("/{eventId}/requests/confirm-pending")
+    @ResponseStatus(HttpStatus.OK)
+    public EventRequestStatusUpdateResult confirmPendingRequests(@PathVariable Long userId,
+                                                                 @PathVariable Long eventId) {
+        log.info("Автоматическое подтверждение заявок для события ID: {} пользователем ID: {}", eventId, userId);
+        return eventService.confirmPendingRequests(userId, eventId);
+    }
 }
@@ -9,12 +9,16 @@ import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.main.etag.ETagged;
 import ru.practicum.main.event.dto.EventFullDto;
 import ru.practicum.main.event.service.EventService;
 import ru.practicum.main.event.dto.EventShortDto;
+import ru.practicum.main.event.service.TrendingEventService;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Slf4j
 @Validated
@@ -23,6 +27,7 @@ import java.util.List;
 @RequestMapping("/events")
 public class PublicEventController {
     private final EventService eventService;
+    private final TrendingEventService trendingEventService;
 
     @GetMapping
     @ResponseStatus(HttpStatus.OK)
@@ -44,11 +49,32 @@ public class PublicEventController {
                 size, request);
     }
 
-    @GetMapping("/{id}")
+    @GetMapping("/trending")
     @ResponseStatus(HttpStatus.OK)
+    public List<EventShortDto> getTrendingEvents(@RequestParam(defaultValue = "0") @PositiveOrZero int from,
+                                                 @RequestParam(defaultValue = "10") @Positive int size) {
+        log.info("Получение трендовых событий. from: {}, size: {}", from, size);
+        return trendingEventService.getTrendingEvents(from, size);
+    }
+
+    /**
+     * При совпадении If-None-Match отвечает 304 без сборки DTO, но просмотр всё равно учитывается.
+     * Иначе DTO собирается один раз, и ETag ответа считается по тем же значениям.
+     */
+    @GetMapping("/{id}")
     public EventFullDto getPublishedEventById(@PathVariable Long id,
-                                              HttpServletRequest request) {
+                                              HttpServletRequest request,
+                                              WebRequest webRequest) {
         log.info("Получение события по ID: {}. IP: {}", id, request.getRemoteAddr());
-        return eventService.getPublishedEventById(id, request);
+        Optional<String> etag = eventService.getPublishedEventETag(id);
+        if (etag.isPresent() && webRequest.checkNotModified(etag.get())) {
+            eventService.registerView(request);
+            return null;
+        }
+        ETagged<EventFullDto> event = eventService.getPublishedEventById(id, request);
+        if (webRequest.checkNotModified(event.etag())) {
+            return null;
+        }
+        return event.body();
     }
 }
@@ -22,6 +22,7 @@ public interface EventMapper {
     @Mapping(target = "publishedOn", ignore = true)
     @Mapping(target = "views", ignore = true)
     @Mapping(target = "confirmedRequests", ignore = true)
+    @Mapping(target = "version", ignore = true)
     Event toEntity(NewEventDto dto);
 
     @Mapping(source = "category", target = "category")
@@ -19,7 +19,8 @@ import java.util.Set;
 @Table(name = "events")
 public class Event {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "events_seq")
+    @SequenceGenerator(name = "events_seq", sequenceName = "events_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, length = 2000)
@@ -65,6 +66,9 @@ public class Event {
     @Column(nullable = false, length = 120)
     private String title;
 
+    @Version
+    private Long version;
+
     @Transient
     private Long views;
 
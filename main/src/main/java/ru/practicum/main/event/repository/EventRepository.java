@@ -1,14 +1,18 @@
 package ru.practicum.main.event.repository;
 
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import ru.practicum.main.event.model.Event;
 import ru.practicum.main.event.model.EventState;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -18,10 +22,38 @@ public interface EventRepository extends JpaRepository<Event, Long> {
 
     Optional<Event> findByIdAndInitiatorId(Long eventId, Long initiatorId);
 
+    /**
+     * Блокирует строку события до конца транзакции и увеличивает его версию, даже если само событие не менялось:
+     * так модерация заявок не превысит лимит участников вместе с параллельными заявками и отменами,
+     * а ETag события учтёт новые подтверждения.
+     */
+    @Lock(LockModeType.PESSIMISTIC_FORCE_INCREMENT)
+    Optional<Event> findWithVersionIncrementByIdAndInitiatorId(Long eventId, Long initiatorId);
+
+    /**
+     * Блокирует строку события (SELECT ... FOR UPDATE) до конца транзакции и увеличивает его версию: подсчёт
+     * подтверждённых заявок и подтверждение новой выполняются без параллельных изменений этого события,
+     * а ETag события меняется вместе с числом подтверждённых заявок.
+     */
+    @Lock(LockModeType.PESSIMISTIC_FORCE_INCREMENT)
+    Optional<Event> findWithVersionIncrementById(Long eventId);
+
+    @Query("SELECT e.version FROM Event e WHERE e.id = :eventId AND e.state = :state")
+    Optional<Long> findVersionByIdAndState(@Param("eventId") Long eventId, @Param("state") EventState state);
+
+    /**
+     * Увеличивает версию событий категории: имя категории входит в тело события, и ETag должен смениться.
+     */
+    @Modifying
+    @Query("UPDATE Event e SET e.version = e.version + 1 WHERE e.category.id = :categoryId")
+    int incrementVersionByCategoryId(@Param("categoryId") Long categoryId);
+
     boolean existsByCategoryId(Long categoryId);
 
     List<Event> findAllByIdIn(Set<Long> eventIds);
 
+    List<Event> findAllByIdInAndState(Collection<Long> eventIds, EventState state);
+
     @Query("SELECT e FROM Event e " +
             "WHERE (:users IS NULL OR e.initiator.id IN :users) " +
             "AND (:states IS NULL OR e.state IN :states) " +
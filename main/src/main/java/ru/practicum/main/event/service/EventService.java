@@ -1,12 +1,15 @@
 package ru.practicum.main.event.service;
 
 import jakarta.servlet.http.HttpServletRequest;
+import ru.practicum.main.etag.ETagged;
 import ru.practicum.main.event.dto.*;
 import ru.practicum.main.event.model.Event;
 import ru.practicum.main.request.dto.ParticipationRequestDto;
+import ru.practicum.main.request.model.RequestStatus;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 public interface EventService {
 
@@ -18,11 +21,18 @@ public interface EventService {
 
     EventFullDto updateEventByInitiator(Long userId, Long eventId, UpdateEventUserRequest updateEventUserRequest);
 
-    List<ParticipationRequestDto> getEventRequests(Long userId, Long eventId);
+    /**
+     * Заявки на событие инициатора с id больше after в порядке id; без size — все заявки, как в
+     * {@link ru.practicum.main.request.service.RequestService#getUserRequests}.
+     */
+    List<ParticipationRequestDto> getEventRequests(Long userId, Long eventId, RequestStatus status, long after,
+                                                   Integer size);
 
     EventRequestStatusUpdateResult updateEventRequestStatus(Long userId, Long eventId,
                                                             EventRequestStatusUpdateRequest updateRequest);
 
+    EventRequestStatusUpdateResult confirmPendingRequests(Long userId, Long eventId);
+
     List<EventFullDto> getEventsForAdmin(List<Long> users, List<String> states, List<Long> categories,
                                          LocalDateTime rangeStart, LocalDateTime rangeEnd, int from, int size);
 
@@ -32,7 +42,18 @@ public interface EventService {
                                            LocalDateTime rangeEnd, Boolean onlyAvailable, String sort, int from,
                                            int size, HttpServletRequest request);
 
-    EventFullDto getPublishedEventById(Long eventId, HttpServletRequest request);
+    /**
+     * Событие вместе с ETag из его версии и показанных просмотров; просмотры запоминаются для следующих проверок.
+     */
+    ETagged<EventFullDto> getPublishedEventById(Long eventId, HttpServletRequest request);
+
+    /**
+     * ETag по версии события и запомненным просмотрам без обращения к сервису статистики; пусто, если просмотры
+     * не запомнены или устарели и ответ нужно собрать заново.
+     */
+    Optional<String> getPublishedEventETag(Long eventId);
+
+    void registerView(HttpServletRequest request);
 
     List<EventShortDto> addViewsAndConfirmedRequestsToShortEvents(List<Event> events);
 }
@@ -1,14 +1,21 @@
 package ru.practicum.main.event.service;
 
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.main.category.model.Category;
 import ru.practicum.main.category.repository.CategoryRepository;
+import ru.practicum.main.etag.ETagged;
+import ru.practicum.main.etag.ETags;
+import ru.practicum.main.etag.ViewsCache;
 import ru.practicum.main.event.dto.*;
 import ru.practicum.main.event.mapper.EventMapper;
 import ru.practicum.main.event.model.*;
@@ -29,6 +36,7 @@ import ru.practicum.stats.dto.ViewStats;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import static ru.practicum.main.event.model.EventState.CANCELED;
@@ -41,6 +49,10 @@ import static ru.practicum.main.request.model.RequestStatus.*;
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class EventServiceImpl implements EventService {
+    static final String ENRICHMENT_METRIC = "ewm.events.enrichment";
+    static final String ENRICHED_METRIC = "ewm.events.enriched";
+    private static final String EVENT_ETAG = "event";
+
     private final EventRepository eventRepository;
     private final UserRepository userRepository;
     private final CategoryRepository categoryRepository;
@@ -49,6 +61,8 @@ public class EventServiceImpl implements EventService {
     private final EventMapper eventMapper;
     private final RequestMapper requestMapper;
     private final StatsClient statsClient;
+    private final MeterRegistry meterRegistry;
+    private final ViewsCache viewsCache;
 
     @Transactional
     public EventFullDto createEvent(Long userId, NewEventDto newEventDto) {
@@ -160,18 +174,20 @@ public class EventServiceImpl implements EventService {
         return addViewsAndConfirmedRequestsToFullEvent(updatedEvent);
     }
 
-    public List<ParticipationRequestDto> getEventRequests(Long userId, Long eventId) {
-        log.info("Получение запросов на участие для события ID: {} пользователя ID: {}", eventId, userId);
+    public List<ParticipationRequestDto> getEventRequests(Long userId, Long eventId, RequestStatus status, long after,
+                                                          Integer size) {
+        log.info("Получение запросов на участие для события ID: {} пользователя ID: {}, статус: {}, after: {}, " +
+                "size: {}", eventId, userId, status, after, size);
 
         userRepository.findById(userId)
                 .orElseThrow(() -> new NotFoundException("Пользователь с ID " + userId + " не найден"));
 
-        List<Request> requests = requestRepository.findByEventIdAndEventInitiatorId(eventId, userId);
+        Set<RequestStatus> statuses = status != null ? EnumSet.of(status) : EnumSet.allOf(RequestStatus.class);
+        List<ParticipationRequestDto> requests = requestRepository.findPageByEventIdAndInitiatorId(eventId, userId,
+                statuses, after, size != null ? PageRequest.of(0, size) : Pageable.unpaged());
 
         log.info("Найдено {} запросов для события ID: {}", requests.size(), eventId);
-        return requests.stream()
-                .map(requestMapper::toDto)
-                .collect(Collectors.toList());
+        return requests;
     }
 
     @Transactional
@@ -182,7 +198,7 @@ public class EventServiceImpl implements EventService {
         userRepository.findById(userId)
                 .orElseThrow(() -> new NotFoundException("Пользователь с ID " + userId + " не найден"));
 
-        Event event = eventRepository.findByIdAndInitiatorId(eventId, userId)
+        Event event = eventRepository.findWithVersionIncrementByIdAndInitiatorId(eventId, userId)
                 .orElseThrow(() -> new NotFoundException("Событие с ID " + eventId
                         + " не найдено для пользователя " + userId));
 
@@ -196,38 +212,48 @@ public class EventServiceImpl implements EventService {
             throw new ConflictException("Достигнут лимит участников для события ID: " + eventId);
         }
 
-        List<Request> requestsToUpdate = requestRepository.findAllByIdIn(updateRequest.getRequestIds());
-        List<ParticipationRequestDto> confirmedRequests = new ArrayList<>();
-        List<ParticipationRequestDto> rejectedRequests = new ArrayList<>();
-
-        for (Request request : requestsToUpdate) {
+        List<Long> requestIds = updateRequest.getRequestIds();
+        for (Request request : requestRepository.findNotModeratable(eventId, requestIds)) {
             if (!request.getEvent().getId().equals(eventId)) {
                 throw new ConflictException("Запрос ID: " + request.getId() + " не принадлежит событию ID: " + eventId);
             }
-            if (request.getStatus() != RequestStatus.PENDING) {
-                throw new ConflictException("Статус запроса ID: " + request.getId() + " не PENDING");
-            }
-
-            if (updateRequest.getStatus() == CONFIRMED) {
-                if (event.getParticipantLimit() == 0 || (event.getParticipantLimit() > 0
-                        && confirmedRequestsCount < event.getParticipantLimit())) {
-                    request.setStatus(CONFIRMED);
-                    confirmedRequestsCount++;
-                    confirmedRequests.add(requestMapper.toDto(request));
-                } else {
-                    request.setStatus(REJECTED);
-                    rejectedRequests.add(requestMapper.toDto(request));
-                }
-            } else if (updateRequest.getStatus() == REJECTED) {
-                request.setStatus(REJECTED);
-                rejectedRequests.add(requestMapper.toDto(request));
-            }
+            throw new ConflictException("Статус запроса ID: " + request.getId() + " не PENDING");
         }
 
-        requestRepository.saveAll(requestsToUpdate);
+        long capacity = updateRequest.getStatus() == CONFIRMED
+                ? event.getParticipantLimit() - confirmedRequestsCount
+                : 0;
+        EventRequestStatusUpdateResult result =
+                toStatusUpdateResult(requestRepository.moderatePending(eventId, requestIds, capacity));
 
         log.info("Статусы запросов для события ID: {} обновлены", eventId);
-        return new EventRequestStatusUpdateResult(confirmedRequests, rejectedRequests);
+        return result;
+    }
+
+    @Transactional
+    public EventRequestStatusUpdateResult confirmPendingRequests(Long userId, Long eventId) {
+        log.info("Автоматическое подтверждение заявок для события ID: {} пользователя ID: {}", eventId, userId);
+
+        userRepository.findById(userId)
+                .orElseThrow(() -> new NotFoundException("Пользователь с ID " + userId + " не найден"));
+
+        Event event = eventRepository.findWithVersionIncrementByIdAndInitiatorId(eventId, userId)
+                .orElseThrow(() -> new NotFoundException("Событие с ID " + eventId
+                        + " не найдено для пользователя " + userId));
+
+        if (!event.getRequestModeration() || event.getParticipantLimit() == 0) {
+            throw new ConflictException("Для этого события модерация заявок не требуется или лимит участников равен 0");
+        }
+
+        long confirmedRequestsCount = requestRepository.countByEventIdAndStatus(eventId, CONFIRMED);
+        long capacity = Math.max(event.getParticipantLimit() - confirmedRequestsCount, 0);
+
+        EventRequestStatusUpdateResult result =
+                toStatusUpdateResult(requestRepository.moderateAllPending(eventId, capacity));
+
+        log.info("Для события ID: {} подтверждено {} и отклонено {} заявок", eventId,
+                result.getConfirmedRequests().size(), result.getRejectedRequests().size());
+        return result;
     }
 
     public List<EventFullDto> getEventsForAdmin(List<Long> users, List<String> states, List<Long> categories,
@@ -356,7 +382,7 @@ public class EventServiceImpl implements EventService {
         return result;
     }
 
-    public EventFullDto getPublishedEventById(Long eventId, HttpServletRequest request) {
+    public ETagged<EventFullDto> getPublishedEventById(Long eventId, HttpServletRequest request) {
         log.info("Получение опубликованного события по ID: {}", eventId);
 
         Event event = eventRepository.findById(eventId)
@@ -368,9 +394,23 @@ public class EventServiceImpl implements EventService {
 
         EventFullDto eventFullDto = addViewsAndConfirmedRequestsToFullEvent(event);
         sendHitToStatsService(request);
+        viewsCache.put(EVENT_ETAG, eventId, eventFullDto.getViews());
 
         log.info("Опубликованное событие ID: {} найдено", eventId);
-        return eventFullDto;
+        return new ETagged<>(eventFullDto, ETags.of(EVENT_ETAG, eventId, event.getVersion(), eventFullDto.getViews()));
+    }
+
+    public Optional<String> getPublishedEventETag(Long eventId) {
+        Long version = eventRepository.findVersionByIdAndState(eventId, PUBLISHED)
+                .orElseThrow(() -> new NotFoundException("Опубликованное событие с ID " + eventId + " не найдено"));
+        OptionalLong views = viewsCache.get(EVENT_ETAG, eventId);
+        return views.isPresent()
+                ? Optional.of(ETags.of(EVENT_ETAG, eventId, version, views.getAsLong()))
+                : Optional.empty();
+    }
+
+    public void registerView(HttpServletRequest request) {
+        sendHitToStatsService(request);
     }
 
     private void updateEventFields(Event event, String annotation, Long categoryId, String description,
@@ -431,13 +471,14 @@ public class EventServiceImpl implements EventService {
                 .orElse(LocalDateTime.of(1, 1, 1, 0, 0, 0));
         LocalDateTime end = LocalDateTime.now();
         List<String> uris = events.stream()
-                .map(event -> "/events/" + event.getId())
+                .map(event -> EventUris.of(event.getId()))
                 .collect(Collectors.toList());
 
         List<ViewStats> stats = statsClient.getStats(start, end, uris, true);
         return stats.stream()
+                .filter(stat -> EventUris.parseId(stat.getUri()) != null)
                 .collect(Collectors.toMap(
-                        stat -> Long.parseLong(stat.getUri().replace("/events/", "")),
+                        stat -> EventUris.parseId(stat.getUri()),
                         ViewStats::getHits));
     }
 
@@ -454,39 +495,76 @@ public class EventServiceImpl implements EventService {
     }
 
     private EventFullDto addViewsAndConfirmedRequestsToFullEvent(Event event) {
-        EventFullDto dto = eventMapper.toFullDto(event);
-        Map<Long, Long> views = getViews(List.of(event));
-        dto.setViews(views.getOrDefault(event.getId(), 0L));
-        Map<Long, Long> confirmedRequests = getConfirmedRequestsCount(List.of(event));
-        dto.setConfirmedRequests(confirmedRequests.getOrDefault(event.getId(), 0L));
-        return dto;
+        return timeEnrichment("addViewsAndConfirmedRequestsToFullEvent", 1, () -> {
+            EventFullDto dto = eventMapper.toFullDto(event);
+            Map<Long, Long> views = getViews(List.of(event));
+            dto.setViews(views.getOrDefault(event.getId(), 0L));
+            Map<Long, Long> confirmedRequests = getConfirmedRequestsCount(List.of(event));
+            dto.setConfirmedRequests(confirmedRequests.getOrDefault(event.getId(), 0L));
+            return dto;
+        });
     }
 
     public List<EventShortDto> addViewsAndConfirmedRequestsToShortEvents(List<Event> events) {
-        Map<Long, Long> views = getViews(events);
-        Map<Long, Long> confirmedRequests = getConfirmedRequestsCount(events);
-
-        return events.stream()
-                .map(event -> {
-                    EventShortDto dto = eventMapper.toShortDto(event);
-                    dto.setViews(views.getOrDefault(event.getId(), 0L));
-                    dto.setConfirmedRequests(confirmedRequests.getOrDefault(event.getId(), 0L));
-                    return dto;
-                })
-                .collect(Collectors.toList());
+        return timeEnrichment("addViewsAndConfirmedRequestsToShortEvents", events.size(), () -> {
+            Map<Long, Long> views = getViews(events);
+            Map<Long, Long> confirmedRequests = getConfirmedRequestsCount(events);
+
+            return events.stream()
+                    .map(event -> {
+                        EventShortDto dto = eventMapper.toShortDto(event);
+                        dto.setViews(views.getOrDefault(event.getId(), 0L));
+                        dto.setConfirmedRequests(confirmedRequests.getOrDefault(event.getId(), 0L));
+                        return dto;
+                    })
+                    .collect(Collectors.toList());
+        });
     }
 
     private List<EventFullDto> addViewsAndConfirmedRequestsToFullEvents(List<Event> events) {
-        Map<Long, Long> views = getViews(events);
-        Map<Long, Long> confirmedRequests = getConfirmedRequestsCount(events);
-
-        return events.stream()
-                .map(event -> {
-                    EventFullDto dto = eventMapper.toFullDto(event);
-                    dto.setViews(views.getOrDefault(event.getId(), 0L));
-                    dto.setConfirmedRequests(confirmedRequests.getOrDefault(event.getId(), 0L));
-                    return dto;
-                })
-                .collect(Collectors.toList());
+        return timeEnrichment("addViewsAndConfirmedRequestsToFullEvents", events.size(), () -> {
+            Map<Long, Long> views = getViews(events);
+            Map<Long, Long> confirmedRequests = getConfirmedRequestsCount(events);
+
+            return events.stream()
+                    .map(event -> {
+                        EventFullDto dto = eventMapper.toFullDto(event);
+                        dto.setViews(views.getOrDefault(event.getId(), 0L));
+                        dto.setConfirmedRequests(confirmedRequests.getOrDefault(event.getId(), 0L));
+                        return dto;
+                    })
+                    .collect(Collectors.toList());
+        });
+    }
+
+    /**
+     * Обогащение вызывается и изнутри сервиса, мимо AOP-прокси, поэтому время и число событий
+     * записываются здесь, а не аспектом.
+     */
+    private <T> T timeEnrichment(String method, int events, Supplier<T> enrichment) {
+        DistributionSummary.builder(ENRICHED_METRIC)
+                .description("Число событий, обогащаемых просмотрами и заявками за один вызов")
+                .baseUnit("events")
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(events);
+        return Timer.builder(ENRICHMENT_METRIC)
+                .tag("method", method)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(enrichment);
+    }
+
+    private EventRequestStatusUpdateResult toStatusUpdateResult(List<ModeratedRequest> moderated) {
+        List<ParticipationRequestDto> confirmedRequests = new ArrayList<>();
+        List<ParticipationRequestDto> rejectedRequests = new ArrayList<>();
+
+        moderated.stream()
+                .map(requestMapper::toDto)
+                .sorted(Comparator.comparing(ParticipationRequestDto::getCreated)
+                        .thenComparing(ParticipationRequestDto::getId))
+                .forEach(dto -> (dto.getStatus() == CONFIRMED ? confirmedRequests : rejectedRequests).add(dto));
+
+        return new EventRequestStatusUpdateResult(confirmedRequests, rejectedRequests);
     }
 }
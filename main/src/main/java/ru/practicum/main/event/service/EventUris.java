@@ -0,0 +1,24 @@
+package ru.practicum.main.event.service;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public final class EventUris {
+    private static final String PREFIX = "/events/";
+    private static final Pattern EVENT_URI = Pattern.compile("^/events/(\\d+)$");
+
+    private EventUris() {
+    }
+
+    public static String of(Long eventId) {
+        return PREFIX + eventId;
+    }
+
+    /**
+     * Возвращает ID события из URI вида /events/{id} или null для любых других URI.
+     */
+    public static Long parseId(String uri) {
+        Matcher matcher = EVENT_URI.matcher(uri);
+        return matcher.matches() ? Long.valueOf(matcher.group(1)) : null;
+    }
+}
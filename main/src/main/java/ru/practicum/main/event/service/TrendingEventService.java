@@ -0,0 +1,12 @@
+package ru.practicum.main.event.service;
+
+import ru.practicum.main.event.dto.EventShortDto;
+
+import java.util.List;
+
+public interface TrendingEventService {
+
+    List<EventShortDto> getTrendingEvents(int from, int size);
+
+    void refresh();
+}
@@ -0,0 +1,121 @@
+package ru.practicum.main.event.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClientException;
+import ru.practicum.main.event.dto.EventShortDto;
+import ru.practicum.main.event.model.Event;
+import ru.practicum.main.event.repository.EventRepository;
+import ru.practicum.stats.client.StatsClient;
+import ru.practicum.stats.dto.ViewStats;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static ru.practicum.main.event.model.EventState.PUBLISHED;
+
+@Slf4j
+@Service
+public class TrendingEventServiceImpl implements TrendingEventService {
+    private static final Duration INGEST_LAG = Duration.ofSeconds(5);
+    private static final double MIN_SCORE = 0.01;
+
+    private final StatsClient statsClient;
+    private final EventRepository eventRepository;
+    private final EventService eventService;
+    private final boolean enabled;
+    private final Duration halfLife;
+    private final int size;
+    private final Clock clock;
+
+    private final Map<Long, Double> scores = new HashMap<>();
+    private final AtomicReference<List<EventShortDto>> ranking = new AtomicReference<>(List.of());
+    private LocalDateTime pulledUntil;
+
+    @Autowired
+    public TrendingEventServiceImpl(StatsClient statsClient, EventRepository eventRepository,
+                                    EventService eventService,
+                                    @Value("${events.trending.enabled:true}") boolean enabled,
+                                    @Value("${events.trending.half-life-minutes:60}") int halfLifeMinutes,
+                                    @Value("${events.trending.size:100}") int size) {
+        this(statsClient, eventRepository, eventService, enabled, halfLifeMinutes, size, Clock.systemDefaultZone());
+    }
+
+    TrendingEventServiceImpl(StatsClient statsClient, EventRepository eventRepository, EventService eventService,
+                             boolean enabled, int halfLifeMinutes, int size, Clock clock) {
+        this.statsClient = statsClient;
+        this.eventRepository = eventRepository;
+        this.eventService = eventService;
+        this.enabled = enabled;
+        this.halfLife = Duration.ofMinutes(halfLifeMinutes);
+        this.size = size;
+        this.clock = clock;
+    }
+
+    public List<EventShortDto> getTrendingEvents(int from, int size) {
+        List<EventShortDto> current = ranking.get();
+        if (from >= current.size()) {
+            return List.of();
+        }
+        return current.subList(from, Math.min(from + size, current.size()));
+    }
+
+    @Scheduled(fixedDelayString = "${events.trending.refresh-ms:60000}")
+    public void refresh() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime until = LocalDateTime.now(clock).minus(INGEST_LAG).truncatedTo(ChronoUnit.SECONDS);
+        LocalDateTime since = pulledUntil != null ? pulledUntil : until.minus(halfLife);
+        if (!until.isAfter(since)) {
+            return;
+        }
+
+        List<ViewStats> stats;
+        try {
+            stats = statsClient.getStats(since, until.minusSeconds(1), null, false);
+        } catch (RestClientException e) {
+            log.warn("Не удалось получить статистику для трендов, рейтинг не обновлён: {}", e.getMessage());
+            return;
+        }
+
+        if (pulledUntil != null) {
+            double decay = Math.pow(0.5, (double) Duration.between(pulledUntil, until).toMillis()
+                    / halfLife.toMillis());
+            scores.replaceAll((eventId, score) -> score * decay);
+        }
+        for (ViewStats stat : stats) {
+            Long eventId = EventUris.parseId(stat.getUri());
+            if (eventId != null) {
+                scores.merge(eventId, (double) stat.getHits(), Double::sum);
+            }
+        }
+        scores.values().removeIf(score -> score < MIN_SCORE);
+        pulledUntil = until;
+
+        List<Long> candidates = scores.entrySet().stream()
+                .sorted(Map.Entry.<Long, Double>comparingByValue().reversed())
+                .limit(size * 2L)
+                .map(Map.Entry::getKey)
+                .toList();
+        Map<Long, Event> published = eventRepository.findAllByIdInAndState(candidates, PUBLISHED).stream()
+                .collect(Collectors.toMap(Event::getId, Function.identity()));
+        List<Event> ranked = candidates.stream()
+                .map(published::get)
+                .filter(Objects::nonNull)
+                .limit(size)
+                .toList();
+
+        ranking.set(List.copyOf(eventService.addViewsAndConfirmedRequestsToShortEvents(ranked)));
+        log.info("Рейтинг трендовых событий обновлён: {} событий, статистика до {}", ranked.size(), until);
+    }
+}
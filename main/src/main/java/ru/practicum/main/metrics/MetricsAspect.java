@@ -0,0 +1,65 @@
+package ru.practicum.main.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.stereotype.Component;
+
+/**
+ * Таймеры публичных методов сервисов, запросов репозиториев и вызовов сервиса статистики
+ * с тегами по имени и исходу.
+ */
+@Aspect
+@Component
+public class MetricsAspect {
+    static final String SERVICE_METRIC = "ewm.service.method";
+    static final String REPOSITORY_METRIC = "ewm.repository.query";
+    static final String STATS_CLIENT_METRIC = "ewm.stats.client";
+
+    private final MeterRegistry registry;
+
+    public MetricsAspect(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Around("execution(public * ru.practicum.main..service..*(..))"
+            + " && @within(org.springframework.stereotype.Service)")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        String name = AopUtils.getTargetClass(joinPoint.getTarget()).getSimpleName();
+        return time(SERVICE_METRIC, "class", name, joinPoint);
+    }
+
+    @Around("execution(* org.springframework.data.repository.Repository+.*(..))")
+    public Object timeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(REPOSITORY_METRIC, "repository", RepositoryNames.of(joinPoint.getTarget()), joinPoint);
+    }
+
+    @Around("execution(public * ru.practicum.stats.client.StatsClient.*(..))")
+    public Object timeStatsClient(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(STATS_CLIENT_METRIC, "client", "StatsClient", joinPoint);
+    }
+
+    private Object time(String metric, String ownerTag, String owner, ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample sample = Timer.start(registry);
+        String outcome = "SUCCESS";
+        String exception = "none";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            outcome = "ERROR";
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(metric)
+                    .tag(ownerTag, owner)
+                    .tag("method", joinPoint.getSignature().getName())
+                    .tag("outcome", outcome)
+                    .tag("exception", exception)
+                    .publishPercentileHistogram()
+                    .register(registry));
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package ru.practicum.main.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Счётчики работы Hibernate в рамках одного HTTP-запроса. Хранятся в ThreadLocal, потому что
+ * инспектор SQL и слушатели Hibernate создаются самим Hibernate и не получают бинов Spring.
+ */
+public final class QueryStats {
+    private static final ThreadLocal<QueryStats> CURRENT = new ThreadLocal<>();
+
+    private final int maxQueries;
+    private final Map<String, Integer> queries = new LinkedHashMap<>();
+    private int statements;
+    private int entityLoads;
+    private int collectionFetches;
+    private long jdbcNanos;
+    private long flushNanos;
+
+    QueryStats(int maxQueries) {
+        this.maxQueries = maxQueries;
+    }
+
+    static QueryStats start(int maxQueries) {
+        QueryStats stats = new QueryStats(maxQueries);
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    static void finish() {
+        CURRENT.remove();
+    }
+
+    static QueryStats current() {
+        return CURRENT.get();
+    }
+
+    void statement(String sql) {
+        statements++;
+        if (queries.containsKey(sql) || queries.size() < maxQueries) {
+            queries.merge(sql, 1, Integer::sum);
+        }
+    }
+
+    void entityLoaded() {
+        entityLoads++;
+    }
+
+    void collectionFetched() {
+        collectionFetches++;
+    }
+
+    void jdbcExecuted(long nanos) {
+        jdbcNanos += nanos;
+    }
+
+    void flushed(long nanos) {
+        flushNanos += nanos;
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public int getEntityLoads() {
+        return entityLoads;
+    }
+
+    public int getCollectionFetches() {
+        return collectionFetches;
+    }
+
+    public long getJdbcNanos() {
+        return jdbcNanos;
+    }
+
+    public long getFlushNanos() {
+        return flushNanos;
+    }
+
+    /**
+     * Различные SQL-запросы с числом повторов; повторы одного запроса обычно означают N+1.
+     */
+    public Map<String, Integer> getQueries() {
+        return queries;
+    }
+}
@@ -0,0 +1,37 @@
+package ru.practicum.main.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.JdbcSettings;
+import org.hibernate.cfg.SessionEventSettings;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+@Configuration
+public class QueryStatsConfig {
+    private static final String INTEGRATOR_PROVIDER = "hibernate.integrator_provider";
+
+    @Bean
+    public HibernatePropertiesCustomizer queryStatsHibernateCustomizer() {
+        return properties -> {
+            properties.put(JdbcSettings.STATEMENT_INSPECTOR, new QueryStatsHibernateHooks.Inspector());
+            properties.put(SessionEventSettings.AUTO_SESSION_EVENTS_LISTENER,
+                    QueryStatsHibernateHooks.SessionListener.class.getName());
+            properties.put(INTEGRATOR_PROVIDER,
+                    (IntegratorProvider) () -> List.of(new QueryStatsHibernateHooks.LoadIntegrator()));
+        };
+    }
+
+    @Bean
+    public QueryStatsFilter queryStatsFilter(MeterRegistry registry,
+                                             @Value("${sql.stats.enabled:true}") boolean enabled,
+                                             @Value("${sql.stats.statement-budget:20}") int statementBudget,
+                                             @Value("${sql.stats.time-budget-ms:500}") long timeBudgetMillis,
+                                             @Value("${sql.stats.max-logged-queries:20}") int maxLoggedQueries) {
+        return new QueryStatsFilter(registry, enabled, statementBudget, timeBudgetMillis, maxLoggedQueries);
+    }
+}
@@ -0,0 +1,101 @@
+package ru.practicum.main.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Собирает статистику Hibernate за HTTP-запрос, публикует её в метриках по шаблону URI
+ * и пишет в лог запросы, превысившие бюджет по числу SQL-запросов или по времени.
+ */
+@Slf4j
+public class QueryStatsFilter extends OncePerRequestFilter {
+    static final String STATEMENTS_METRIC = "ewm.request.sql.statements";
+    static final String ENTITY_LOADS_METRIC = "ewm.request.sql.entity.loads";
+    static final String COLLECTION_FETCHES_METRIC = "ewm.request.sql.collection.fetches";
+    static final String JDBC_METRIC = "ewm.request.sql.jdbc";
+    static final String FLUSH_METRIC = "ewm.request.sql.flush";
+    static final String BUDGET_EXCEEDED_METRIC = "ewm.request.sql.budget.exceeded";
+
+    private final MeterRegistry registry;
+    private final boolean enabled;
+    private final int statementBudget;
+    private final long timeBudgetMillis;
+    private final int maxLoggedQueries;
+
+    public QueryStatsFilter(MeterRegistry registry, boolean enabled, int statementBudget, long timeBudgetMillis,
+                            int maxLoggedQueries) {
+        this.registry = registry;
+        this.enabled = enabled;
+        this.statementBudget = statementBudget;
+        this.timeBudgetMillis = timeBudgetMillis;
+        this.maxLoggedQueries = maxLoggedQueries;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        QueryStats stats = QueryStats.start(maxLoggedQueries);
+        long started = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            QueryStats.finish();
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+            publish(request, stats, elapsedMillis);
+        }
+    }
+
+    private void publish(HttpServletRequest request, QueryStats stats, long elapsedMillis) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        Tags tags = Tags.of("method", request.getMethod(), "uri", pattern == null ? "UNKNOWN" : pattern.toString());
+
+        DistributionSummary.builder(STATEMENTS_METRIC).tags(tags).publishPercentileHistogram().register(registry)
+                .record(stats.getStatements());
+        DistributionSummary.builder(ENTITY_LOADS_METRIC).tags(tags).register(registry)
+                .record(stats.getEntityLoads());
+        DistributionSummary.builder(COLLECTION_FETCHES_METRIC).tags(tags).register(registry)
+                .record(stats.getCollectionFetches());
+        Timer.builder(JDBC_METRIC).tags(tags).register(registry)
+                .record(stats.getJdbcNanos(), TimeUnit.NANOSECONDS);
+        Timer.builder(FLUSH_METRIC).tags(tags).register(registry)
+                .record(stats.getFlushNanos(), TimeUnit.NANOSECONDS);
+
+        if (stats.getStatements() > statementBudget || elapsedMillis > timeBudgetMillis) {
+            Counter.builder(BUDGET_EXCEEDED_METRIC).tags(tags).register(registry).increment();
+            log.warn("Запрос {} {} превысил бюджет: {} мс, SQL-запросов {}, JDBC {} мс, загружено сущностей {}, "
+                            + "коллекций {}, flush {} мс. Запросы:{}",
+                    request.getMethod(), request.getRequestURI(), elapsedMillis, stats.getStatements(),
+                    TimeUnit.NANOSECONDS.toMillis(stats.getJdbcNanos()), stats.getEntityLoads(),
+                    stats.getCollectionFetches(), TimeUnit.NANOSECONDS.toMillis(stats.getFlushNanos()),
+                    format(stats.getQueries()));
+        }
+    }
+
+    private static String format(Map<String, Integer> queries) {
+        StringBuilder result = new StringBuilder();
+        queries.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .forEach(entry -> result.append(System.lineSeparator())
+                        .append(entry.getValue()).append(" x ").append(entry.getKey()));
+        return result.toString();
+    }
+}
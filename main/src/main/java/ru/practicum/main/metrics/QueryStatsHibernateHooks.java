@@ -0,0 +1,93 @@
+package ru.practicum.main.metrics;
+
+import org.hibernate.BaseSessionEventListener;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.InitializeCollectionEventListener;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+
+/**
+ * Точки расширения Hibernate, которые пишут в {@link QueryStats} текущего запроса.
+ * Вне HTTP-запроса (например, в задачах по расписанию) ничего не учитывается.
+ */
+public final class QueryStatsHibernateHooks {
+    private QueryStatsHibernateHooks() {
+    }
+
+    public static final class Inspector implements StatementInspector {
+        @Override
+        public String inspect(String sql) {
+            QueryStats stats = QueryStats.current();
+            if (stats != null) {
+                stats.statement(sql);
+            }
+            return sql;
+        }
+    }
+
+    /**
+     * Создаётся Hibernate на каждую сессию, поэтому может хранить моменты начала операций в полях.
+     */
+    public static final class SessionListener extends BaseSessionEventListener {
+        private long executeStart;
+        private long flushStart;
+
+        @Override
+        public void jdbcExecuteStatementStart() {
+            executeStart = System.nanoTime();
+        }
+
+        @Override
+        public void jdbcExecuteStatementEnd() {
+            QueryStats stats = QueryStats.current();
+            if (stats != null) {
+                stats.jdbcExecuted(System.nanoTime() - executeStart);
+            }
+        }
+
+        @Override
+        public void flushStart() {
+            flushStart = System.nanoTime();
+        }
+
+        @Override
+        public void flushEnd(int numberOfEntities, int numberOfCollections) {
+            QueryStats stats = QueryStats.current();
+            if (stats != null) {
+                stats.flushed(System.nanoTime() - flushStart);
+            }
+        }
+    }
+
+    static final class LoadIntegrator implements Integrator {
+        @Override
+        public void integrate(Metadata metadata, BootstrapContext bootstrapContext,
+                              SessionFactoryImplementor sessionFactory) {
+            EventListenerRegistry registry = sessionFactory.getServiceRegistry()
+                    .getService(EventListenerRegistry.class);
+            registry.appendListeners(EventType.POST_LOAD, (PostLoadEventListener) event -> {
+                QueryStats stats = QueryStats.current();
+                if (stats != null) {
+                    stats.entityLoaded();
+                }
+            });
+            registry.appendListeners(EventType.INIT_COLLECTION, (InitializeCollectionEventListener) event -> {
+                QueryStats stats = QueryStats.current();
+                if (stats != null) {
+                    stats.collectionFetched();
+                }
+            });
+        }
+
+        @Override
+        public void disintegrate(SessionFactoryImplementor sessionFactory,
+                                 SessionFactoryServiceRegistry serviceRegistry) {
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package ru.practicum.main.metrics;
+
+import org.springframework.util.ClassUtils;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Имя репозитория для тегов метрик и спанов: интерфейс приложения, который реализует прокси Spring Data,
+ * а не имя самого прокси. Имена кэшируются по классу прокси.
+ */
+public final class RepositoryNames {
+    private static final String APPLICATION_PACKAGE = "ru.practicum.main.";
+    private static final ConcurrentMap<Class<?>, String> NAMES = new ConcurrentHashMap<>();
+
+    private RepositoryNames() {
+    }
+
+    public static String of(Object repository) {
+        return NAMES.computeIfAbsent(repository.getClass(), RepositoryNames::resolve);
+    }
+
+    private static String resolve(Class<?> type) {
+        for (Class<?> candidate : ClassUtils.getAllInterfacesForClassAsSet(type)) {
+            if (candidate.getName().startsWith(APPLICATION_PACKAGE)) {
+                return candidate.getSimpleName();
+            }
+        }
+        return type.getSimpleName();
+    }
+}
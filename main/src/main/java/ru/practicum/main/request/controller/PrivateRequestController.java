@@ -1,10 +1,13 @@
 package ru.practicum.main.request.controller;
 
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.main.request.model.RequestStatus;
 import ru.practicum.main.request.service.RequestService;
 import ru.practicum.main.request.dto.ParticipationRequestDto;
 
@@ -20,17 +23,23 @@ public class PrivateRequestController {
 
     @GetMapping
     @ResponseStatus(HttpStatus.OK)
-    public List<ParticipationRequestDto> getUserRequests(@PathVariable Long userId) {
-        log.info("Получение запросов на участие для пользователя ID: {}", userId);
-        return requestService.getUserRequests(userId);
+    public List<ParticipationRequestDto> getUserRequests(@PathVariable Long userId,
+                                                         @RequestParam(required = false) RequestStatus status,
+                                                         @RequestParam(defaultValue = "0") @PositiveOrZero long after,
+                                                         @RequestParam(required = false) @Positive Integer size) {
+        log.info("Получение запросов на участие для пользователя ID: {}, статус: {}, after: {}, size: {}",
+                userId, status, after, size);
+        return requestService.getUserRequests(userId, status, after, size);
     }
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
     public ParticipationRequestDto createRequest(@PathVariable Long userId,
-                                                 @RequestParam Long eventId) {
-        log.info("Создание запроса на участие: пользователь ID: {}, событие ID: {}", userId, eventId);
-        return requestService.createRequest(userId, eventId);
+                                                 @RequestParam Long eventId,
+                                                 @RequestParam(defaultValue = "false") boolean waitlist) {
+        log.info("Создание запроса на участие: пользователь ID: {}, событие ID: {}, лист ожидания: {}",
+                userId, eventId, waitlist);
+        return requestService.createRequest(userId, eventId, waitlist);
     }
 
     @PatchMapping("/{requestId}/cancel")
@@ -3,6 +3,7 @@ package ru.practicum.main.request.mapper;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import ru.practicum.main.request.dto.ParticipationRequestDto;
+import ru.practicum.main.request.model.ModeratedRequest;
 import ru.practicum.main.request.model.Request;
 
 @Mapper(componentModel = "spring")
@@ -10,4 +11,8 @@ public interface RequestMapper {
     @Mapping(source = "event.id", target = "event")
     @Mapping(source = "requester.id", target = "requester")
     ParticipationRequestDto toDto(Request request);
+
+    @Mapping(source = "eventId", target = "event")
+    @Mapping(source = "requesterId", target = "requester")
+    ParticipationRequestDto toDto(ModeratedRequest request);
 }
@@ -0,0 +1,18 @@
+package ru.practicum.main.request.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Строка, возвращённая массовым изменением статусов заявок.
+ */
+public interface ModeratedRequest {
+    Long getId();
+
+    LocalDateTime getCreated();
+
+    Long getEventId();
+
+    Long getRequesterId();
+
+    String getStatus();
+}
@@ -1,20 +1,46 @@
 package ru.practicum.main.request.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import ru.practicum.main.request.dto.ParticipationRequestDto;
+import ru.practicum.main.request.model.ModeratedRequest;
 import ru.practicum.main.request.model.RequestStatus;
 import ru.practicum.main.request.model.Request;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface RequestRepository extends JpaRepository<Request, Long> {
-    List<Request> findByRequesterId(Long requesterId);
-
     Optional<Request> findByIdAndRequesterId(Long requestId, Long requesterId);
 
-    List<Request> findByEventIdAndEventInitiatorId(Long eventId, Long initiatorId);
+    /**
+     * Страница заявок пользователя с id больше after в заданных статусах, сразу в виде DTO без загрузки связей.
+     */
+    @Query("SELECT new ru.practicum.main.request.dto.ParticipationRequestDto(" +
+            "r.id, r.created, r.event.id, r.requester.id, r.status) " +
+            "FROM Request r WHERE r.requester.id = :requesterId AND r.status IN :statuses AND r.id > :after " +
+            "ORDER BY r.id")
+    List<ParticipationRequestDto> findPageByRequesterId(@Param("requesterId") Long requesterId,
+                                                        @Param("statuses") Collection<RequestStatus> statuses,
+                                                        @Param("after") long after,
+                                                        Pageable pageable);
+
+    /**
+     * Страница заявок на событие инициатора с id больше after в заданных статусах, сразу в виде DTO.
+     */
+    @Query("SELECT new ru.practicum.main.request.dto.ParticipationRequestDto(" +
+            "r.id, r.created, r.event.id, r.requester.id, r.status) " +
+            "FROM Request r WHERE r.event.id = :eventId AND r.event.initiator.id = :initiatorId " +
+            "AND r.status IN :statuses AND r.id > :after " +
+            "ORDER BY r.id")
+    List<ParticipationRequestDto> findPageByEventIdAndInitiatorId(@Param("eventId") Long eventId,
+                                                                  @Param("initiatorId") Long initiatorId,
+                                                                  @Param("statuses") Collection<RequestStatus> statuses,
+                                                                  @Param("after") long after,
+                                                                  Pageable pageable);
 
     long countByEventIdAndStatus(Long eventId, RequestStatus status);
 
@@ -24,6 +50,74 @@ public interface RequestRepository extends JpaRepository<Request, Long> {
     Optional<Request> findByEventIdAndRequesterId(@Param("eventId") Long eventId,
                                                   @Param("requesterId") Long requesterId);
 
+    @Query("SELECT r FROM Request r WHERE r.id IN :requestIds " +
+            "AND (r.event.id <> :eventId OR r.status <> 'PENDING')")
+    List<Request> findNotModeratable(@Param("eventId") Long eventId, @Param("requestIds") List<Long> requestIds);
+
+    /**
+     * Одним запросом подтверждает первые capacity ожидающих заявок из списка в порядке подачи и отклоняет остальные.
+     */
+    @Query(value = "WITH pending AS (" +
+            "    SELECT id, created FROM requests " +
+            "    WHERE event_id = :eventId AND id IN (:requestIds) AND status = 'PENDING' " +
+            "    FOR UPDATE" +
+            "), ranked AS (" +
+            "    SELECT id, ROW_NUMBER() OVER (ORDER BY created, id) AS position FROM pending" +
+            ") " +
+            "UPDATE requests r " +
+            "SET status = CASE WHEN ranked.position <= :capacity THEN 'CONFIRMED' ELSE 'REJECTED' END, " +
+            "    version = r.version + 1 " +
+            "FROM ranked " +
+            "WHERE r.id = ranked.id " +
+            "RETURNING r.id AS \"id\", r.created AS \"created\", r.event_id AS \"eventId\", " +
+            "r.requester_id AS \"requesterId\", r.status AS \"status\"",
+            nativeQuery = true)
+    List<ModeratedRequest> moderatePending(@Param("eventId") Long eventId,
+                                           @Param("requestIds") List<Long> requestIds,
+                                           @Param("capacity") long capacity);
+
+    /**
+     * Подтверждает ожидающие заявки события в порядке подачи, пока не будет занято capacity мест, остальные отклоняет.
+     */
+    @Query(value = "WITH ranked AS (" +
+            "    SELECT id, ROW_NUMBER() OVER (ORDER BY created, id) AS position FROM (" +
+            "        SELECT id, created FROM requests " +
+            "        WHERE event_id = :eventId AND status = 'PENDING' " +
+            "        ORDER BY created, id " +
+            "        FOR UPDATE" +
+            "    ) pending" +
+            ") " +
+            "UPDATE requests r " +
+            "SET status = CASE WHEN ranked.position <= :capacity THEN 'CONFIRMED' ELSE 'REJECTED' END, " +
+            "    version = r.version + 1 " +
+            "FROM ranked " +
+            "WHERE r.id = ranked.id " +
+            "RETURNING r.id AS \"id\", r.created AS \"created\", r.event_id AS \"eventId\", " +
+            "r.requester_id AS \"requesterId\", r.status AS \"status\"",
+            nativeQuery = true)
+    List<ModeratedRequest> moderateAllPending(@Param("eventId") Long eventId, @Param("capacity") long capacity);
+
+    /**
+     * Переводит первую по времени подачи заявку из листа ожидания события в статус status.
+     * Уже заблокированные параллельными отменами заявки пропускаются, поэтому каждое освободившееся место
+     * достаётся своему ожидающему.
+     */
+    @Query(value = "WITH next AS (" +
+            "    SELECT id FROM requests " +
+            "    WHERE event_id = :eventId AND status = 'WAITLISTED' " +
+            "    ORDER BY created, id " +
+            "    LIMIT 1 " +
+            "    FOR UPDATE SKIP LOCKED" +
+            ") " +
+            "UPDATE requests r " +
+            "SET status = :status, version = r.version + 1 " +
+            "FROM next " +
+            "WHERE r.id = next.id " +
+            "RETURNING r.id AS \"id\", r.created AS \"created\", r.event_id AS \"eventId\", " +
+            "r.requester_id AS \"requesterId\", r.status AS \"status\"",
+            nativeQuery = true)
+    Optional<ModeratedRequest> promoteFromWaitlist(@Param("eventId") Long eventId, @Param("status") String status);
+
     @Query("SELECT r.event.id, COUNT(r.id) FROM Request r WHERE r.event.id IN :eventIds " +
             "AND r.status = 'CONFIRMED' GROUP BY r.event.id")
     List<Object[]> countConfirmedRequestsForEvents(@Param("eventIds") List<Long> eventIds);
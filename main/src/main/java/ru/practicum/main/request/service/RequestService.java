@@ -1,13 +1,18 @@
 package ru.practicum.main.request.service;
 
 import ru.practicum.main.request.dto.ParticipationRequestDto;
+import ru.practicum.main.request.model.RequestStatus;
 
 import java.util.List;
 
 public interface RequestService {
-    List<ParticipationRequestDto> getUserRequests(Long userId);
+    /**
+     * Заявки пользователя с id больше after в порядке id. Без size возвращаются все заявки, как до появления
+     * постраничной выдачи; с size — не больше size, и следующая страница запрашивается с after = id последней.
+     */
+    List<ParticipationRequestDto> getUserRequests(Long userId, RequestStatus status, long after, Integer size);
 
-    ParticipationRequestDto createRequest(Long userId, Long eventId);
+    ParticipationRequestDto createRequest(Long userId, Long eventId, boolean waitlist);
 
     ParticipationRequestDto cancelRequest(Long userId, Long requestId);
 }
@@ -2,6 +2,8 @@ package ru.practicum.main.request.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.main.event.model.Event;
@@ -18,8 +20,9 @@ import ru.practicum.main.user.model.User;
 import ru.practicum.main.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
+import java.util.EnumSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 @Slf4j
 @Service
@@ -31,28 +34,30 @@ public class RequestServiceImpl implements RequestService {
     private final EventRepository eventRepository;
     private final RequestMapper requestMapper;
 
-    public List<ParticipationRequestDto> getUserRequests(Long userId) {
-        log.info("Получение запросов на участие для пользователя ID: {}", userId);
+    public List<ParticipationRequestDto> getUserRequests(Long userId, RequestStatus status, long after, Integer size) {
+        log.info("Получение запросов на участие для пользователя ID: {}, статус: {}, after: {}, size: {}",
+                userId, status, after, size);
 
         userRepository.findById(userId)
                 .orElseThrow(() -> new NotFoundException("Пользователь с ID " + userId + " не найден"));
 
-        List<Request> requests = requestRepository.findByRequesterId(userId);
+        Set<RequestStatus> statuses = status != null ? EnumSet.of(status) : EnumSet.allOf(RequestStatus.class);
+        List<ParticipationRequestDto> requests =
+                requestRepository.findPageByRequesterId(userId, statuses, after,
+                        size != null ? PageRequest.of(0, size) : Pageable.unpaged());
 
         log.info("Найдено {} запросов для пользователя ID: {}", requests.size(), userId);
-        return requests.stream()
-                .map(requestMapper::toDto)
-                .collect(Collectors.toList());
+        return requests;
     }
 
     @Transactional
-    public ParticipationRequestDto createRequest(Long userId, Long eventId) {
+    public ParticipationRequestDto createRequest(Long userId, Long eventId, boolean waitlist) {
         log.info("Создание запроса на участие: пользователь ID: {}, событие ID: {}", userId, eventId);
 
         User requester = userRepository.findById(userId)
                 .orElseThrow(() -> new NotFoundException("Пользователь с ID " + userId + " не найден"));
 
-        Event event = eventRepository.findById(eventId)
+        Event event = eventRepository.findWithVersionIncrementById(eventId)
                 .orElseThrow(() -> new NotFoundException("Событие с ID " + eventId + " не найдено"));
 
         if (requestRepository.findByEventIdAndRequesterId(eventId, userId).isPresent()) {
@@ -68,7 +73,8 @@ public class RequestServiceImpl implements RequestService {
 
         long confirmedRequests = requestRepository.countByEventIdAndStatus(eventId, RequestStatus.CONFIRMED);
 
-        if (event.getParticipantLimit() > 0 && confirmedRequests >= event.getParticipantLimit()) {
+        boolean limitReached = event.getParticipantLimit() > 0 && confirmedRequests >= event.getParticipantLimit();
+        if (limitReached && !waitlist) {
             throw new ConflictException("Лимит участников для события ID: " + eventId + " исчерпан");
         }
 
@@ -79,7 +85,9 @@ public class RequestServiceImpl implements RequestService {
                 .status(RequestStatus.PENDING)
                 .build();
 
-        if (!event.getRequestModeration() || event.getParticipantLimit() == 0) {
+        if (limitReached) {
+            request.setStatus(RequestStatus.WAITLISTED);
+        } else if (!event.getRequestModeration() || event.getParticipantLimit() == 0) {
             request.setStatus(RequestStatus.CONFIRMED);
         }
 
@@ -100,10 +108,31 @@ public class RequestServiceImpl implements RequestService {
                 .orElseThrow(() -> new NotFoundException("Запрос с ID " + requestId + " не найден для пользователя "
                         + userId));
 
+        boolean seatFreed = request.getStatus() == RequestStatus.CONFIRMED;
         request.setStatus(RequestStatus.CANCELED);
         Request canceledRequest = requestRepository.save(request);
 
         log.info("Запрос ID: {} успешно отменен.", canceledRequest.getId());
+
+        if (seatFreed) {
+            promoteFromWaitlist(request.getEvent());
+        }
         return requestMapper.toDto(canceledRequest);
     }
+
+    private void promoteFromWaitlist(Event seatEvent) {
+        Event event = eventRepository.findWithVersionIncrementById(seatEvent.getId())
+                .orElseThrow(() -> new NotFoundException("Событие с ID " + seatEvent.getId() + " не найдено"));
+        RequestStatus status = event.getRequestModeration() ? RequestStatus.PENDING : RequestStatus.CONFIRMED;
+        if (status == RequestStatus.CONFIRMED && event.getParticipantLimit() > 0
+                && requestRepository.countByEventIdAndStatus(event.getId(), RequestStatus.CONFIRMED)
+                >= event.getParticipantLimit()) {
+            log.info("Освободившееся место события ID: {} уже занято, лист ожидания не сдвигается", event.getId());
+            return;
+        }
+
+        requestRepository.promoteFromWaitlist(event.getId(), status.name())
+                .ifPresent(promoted -> log.info("Запрос ID: {} переведён из листа ожидания события ID: {} в статус {}",
+                        promoted.getId(), event.getId(), promoted.getStatus()));
+    }
 }
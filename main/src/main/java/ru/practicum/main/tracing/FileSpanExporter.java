@@ -0,0 +1,67 @@
+package ru.practicum.main.tracing;
+
+import brave.handler.MutableSpan;
+import brave.handler.SpanHandler;
+import brave.propagation.TraceContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Дописывает каждый завершённый спан строкой JSON в файл. Запись защищена ReentrantLock, а не synchronized:
+ * блокирующий ввод-вывод внутри synchronized закрепил бы виртуальный поток за несущим.
+ */
+@Slf4j
+public class FileSpanExporter extends SpanHandler implements AutoCloseable {
+    private final ObjectMapper mapper;
+    private final BufferedWriter writer;
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    public FileSpanExporter(ObjectMapper mapper, Path path) throws IOException {
+        this.mapper = mapper;
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        log.info("Спаны записываются в файл {}", path.toAbsolutePath());
+    }
+
+    @Override
+    public boolean end(TraceContext context, MutableSpan span, Cause cause) {
+        if (cause == Cause.FINISHED) {
+            try {
+                String line = mapper.writeValueAsString(SpanRecord.of(context, span));
+                writeLock.lock();
+                try {
+                    writer.write(line);
+                    writer.newLine();
+                    writer.flush();
+                } finally {
+                    writeLock.unlock();
+                }
+            } catch (IOException e) {
+                log.warn("Не удалось записать спан {}: {}", context.spanIdString(), e.getMessage());
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        writeLock.lock();
+        try {
+            writer.close();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package ru.practicum.main.tracing;
+
+import brave.handler.MutableSpan;
+import brave.handler.SpanHandler;
+import brave.propagation.TraceContext;
+
+import java.util.*;
+
+/**
+ * Хранит спаны последних трасс в памяти. Самые старые трассы вытесняются при превышении лимита.
+ */
+public class InMemorySpanCollector extends SpanHandler {
+    private final int maxTraces;
+    private final Map<String, List<SpanRecord>> traces;
+
+    public InMemorySpanCollector(int maxTraces) {
+        this.maxTraces = maxTraces;
+        this.traces = new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, List<SpanRecord>> eldest) {
+                return size() > InMemorySpanCollector.this.maxTraces;
+            }
+        };
+    }
+
+    @Override
+    public boolean end(TraceContext context, MutableSpan span, Cause cause) {
+        if (cause == Cause.FINISHED) {
+            SpanRecord record = SpanRecord.of(context, span);
+            synchronized (traces) {
+                traces.computeIfAbsent(record.traceId(), key -> new ArrayList<>()).add(record);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Спаны трассы в порядке начала или пустой список, если трасса не найдена или уже вытеснена.
+     */
+    public List<SpanRecord> getTrace(String traceId) {
+        List<SpanRecord> spans;
+        synchronized (traces) {
+            spans = new ArrayList<>(traces.getOrDefault(traceId, List.of()));
+        }
+        spans.sort(Comparator.comparingLong(SpanRecord::startMicros));
+        return spans;
+    }
+
+    /**
+     * Краткие сведения о последних трассах, начиная с самой новой.
+     */
+    public List<TraceSummary> getRecentTraces(int limit) {
+        List<List<SpanRecord>> recent;
+        synchronized (traces) {
+            recent = traces.values().stream().map(List::copyOf).toList();
+        }
+        List<TraceSummary> result = new ArrayList<>();
+        for (int i = recent.size() - 1; i >= 0 && result.size() < limit; i--) {
+            result.add(TraceSummary.of(recent.get(i)));
+        }
+        return result;
+    }
+
+    public record TraceSummary(String traceId, String root, long startMicros, long durationMicros, int spans) {
+        static TraceSummary of(List<SpanRecord> spans) {
+            SpanRecord root = spans.stream()
+                    .filter(span -> span.parentId() == null)
+                    .findFirst()
+                    .orElse(spans.get(0));
+            long start = spans.stream().mapToLong(SpanRecord::startMicros).min().orElse(0);
+            long end = spans.stream().mapToLong(span -> span.startMicros() + span.durationMicros()).max().orElse(0);
+            return new TraceSummary(root.traceId(), root.name(), start, end - start, spans.size());
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package ru.practicum.main.tracing;
+
+import brave.handler.MutableSpan;
+import brave.propagation.TraceContext;
+
+import java.util.Map;
+
+/**
+ * Завершённый спан в виде, удобном для отдачи через actuator и записи в файл.
+ */
+public record SpanRecord(String traceId,
+                         String spanId,
+                         String parentId,
+                         String name,
+                         String kind,
+                         long startMicros,
+                         long durationMicros,
+                         Map<String, String> tags,
+                         String error) {
+
+    static SpanRecord of(TraceContext context, MutableSpan span) {
+        return new SpanRecord(context.traceIdString(), context.spanIdString(), context.parentIdString(),
+                span.name(), span.kind() == null ? null : span.kind().name(), span.startTimestamp(),
+                span.finishTimestamp() - span.startTimestamp(), Map.copyOf(span.tags()),
+                span.error() == null ? null : span.error().getClass().getSimpleName());
+    }
+}
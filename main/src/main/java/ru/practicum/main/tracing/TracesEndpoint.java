@@ -0,0 +1,29 @@
+package ru.practicum.main.tracing;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+
+import java.util.List;
+
+/**
+ * /actuator/traces — последние трассы, /actuator/traces/{traceId} — разбивка запроса по спанам.
+ */
+@Endpoint(id = "traces")
+@RequiredArgsConstructor
+public class TracesEndpoint {
+    private static final int RECENT_LIMIT = 100;
+
+    private final InMemorySpanCollector collector;
+
+    @ReadOperation
+    public List<InMemorySpanCollector.TraceSummary> recent() {
+        return collector.getRecentTraces(RECENT_LIMIT);
+    }
+
+    @ReadOperation
+    public List<SpanRecord> trace(@Selector String traceId) {
+        return collector.getTrace(traceId);
+    }
+}
@@ -0,0 +1,50 @@
+package ru.practicum.main.tracing;
+
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+import ru.practicum.main.metrics.RepositoryNames;
+
+/**
+ * Дочерние спаны вокруг запросов репозиториев и вызовов сервиса статистики.
+ * Спан создаётся только внутри уже начатой трассы, чтобы задачи по расписанию не порождали трассы из одного спана.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class TracingAspect {
+    private final Tracer tracer;
+
+    @Around("execution(* org.springframework.data.repository.Repository+.*(..))")
+    public Object traceRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return trace(RepositoryNames.of(joinPoint.getTarget()), "db", joinPoint);
+    }
+
+    @Around("execution(public * ru.practicum.stats.client.StatsClient.*(..))")
+    public Object traceStatsClient(ProceedingJoinPoint joinPoint) throws Throwable {
+        return trace("StatsClient", "stats", joinPoint);
+    }
+
+    private Object trace(String owner, String component, ProceedingJoinPoint joinPoint) throws Throwable {
+        if (tracer.currentSpan() == null) {
+            return joinPoint.proceed();
+        }
+        String method = joinPoint.getSignature().getName();
+        Span span = tracer.nextSpan()
+                .name(owner + "." + method)
+                .tag("component", component)
+                .start();
+        try (Tracer.SpanInScope ignored = tracer.withSpan(span)) {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            span.error(e);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package ru.practicum.main.tracing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Экспорт спанов без внешнего коллектора: tracing.exporter=memory (по умолчанию) или file.
+ */
+@Configuration
+public class TracingConfig {
+
+    @Configuration
+    @ConditionalOnProperty(name = "tracing.exporter", havingValue = "memory", matchIfMissing = true)
+    static class InMemoryExporterConfig {
+        @Bean
+        public InMemorySpanCollector inMemorySpanCollector(@Value("${tracing.memory.max-traces:1000}") int maxTraces) {
+            return new InMemorySpanCollector(maxTraces);
+        }
+
+        @Bean
+        public TracesEndpoint tracesEndpoint(InMemorySpanCollector collector) {
+            return new TracesEndpoint(collector);
+        }
+    }
+
+    @Configuration
+    @ConditionalOnProperty(name = "tracing.exporter", havingValue = "file")
+    static class FileExporterConfig {
+        @Bean
+        public FileSpanExporter fileSpanExporter(ObjectMapper mapper,
+                                                 @Value("${tracing.file.path:./data/spans.jsonl}") String path)
+                throws IOException {
+            return new FileSpanExporter(mapper, Path.of(path));
+        }
+    }
+}
@@ -1,6 +1,3 @@
-DROP TABLE IF EXISTS users, categories , locations, events, comments, requests, compilations, compilation_events;
-
-
 CREATE TABLE IF NOT EXISTS users (
     id    BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
     email VARCHAR(255)                            NOT NULL UNIQUE,
@@ -0,0 +1,9 @@
+CREATE INDEX CONCURRENTLY IF NOT EXISTS ix_event_state_event_date ON events (state, event_date);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS ix_event_event_date ON events (event_date);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS ix_event_initiator_id ON events (initiator_id, id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS ix_event_category_id ON events (category_id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS ix_comment_event_created_on ON comments (event_id, created_on);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS ix_request_event_status_created ON requests (event_id, status, created, id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS ix_request_event_id ON requests (event_id, id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS ix_request_requester_id ON requests (requester_id, id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS ix_compilation_event_event_id ON compilation_events (event_id);
@@ -111,6 +111,7 @@ class CategoryServiceImplTest {
         CategoryDto result = categoryService.updateCategory(catId, dto);
 
         assertThat(result).isEqualTo(dto);
+        verify(eventRepository).incrementVersionByCategoryId(catId);
     }
 
     @Test
@@ -8,11 +8,15 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.main.compilation.dto.CompilationDto;
 import ru.practicum.main.compilation.service.CompilationService;
+import ru.practicum.main.etag.ETagged;
 
 import java.util.List;
+import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -47,10 +51,23 @@ class PublicCompilationControllerTest {
         dto.setId(1L);
         dto.setTitle("Sample");
 
-        when(compilationService.getCompilationById(1L)).thenReturn(dto);
+        when(compilationService.getCompilationETag(1L)).thenReturn(Optional.empty());
+        when(compilationService.getCompilationById(1L)).thenReturn(new ETagged<>(dto, "\"compilation-1-0\""));
 
         mockMvc.perform(get("/compilations/1"))
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"compilation-1-0\""))
                 .andExpect(jsonPath("$.id").value(1));
     }
+
+    @Test
+    @DisplayName("GET /compilations/{compId} - совпадающий If-None-Match даёт 304 без сборки подборки")
+    void getCompilationById_shouldReturnNotModifiedForMatchingETag() throws Exception {
+        when(compilationService.getCompilationETag(1L)).thenReturn(Optional.of("\"compilation-1-2-5-17-abc\""));
+
+        mockMvc.perform(get("/compilations/1").header("If-None-Match", "\"compilation-1-2-5-17-abc\""))
+                .andExpect(status().isNotModified());
+
+        verify(compilationService, never()).getCompilationById(1L);
+    }
 }
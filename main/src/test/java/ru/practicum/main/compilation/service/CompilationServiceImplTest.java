@@ -7,6 +7,7 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import ru.practicum.main.compilation.dto.CompilationDto;
@@ -14,7 +15,10 @@ import ru.practicum.main.compilation.dto.NewCompilationDto;
 import ru.practicum.main.compilation.dto.UpdateCompilationRequest;
 import ru.practicum.main.compilation.mapper.CompilationMapper;
 import ru.practicum.main.compilation.model.Compilation;
+import ru.practicum.main.compilation.model.CompilationVersion;
 import ru.practicum.main.compilation.repository.CompilationRepository;
+import ru.practicum.main.etag.ETagged;
+import ru.practicum.main.etag.ViewsCache;
 import ru.practicum.main.event.dto.EventShortDto;
 import ru.practicum.main.event.model.Event;
 import ru.practicum.main.event.repository.EventRepository;
@@ -43,6 +47,9 @@ class CompilationServiceImplTest {
     @Mock
     private EventService eventService;
 
+    @Spy
+    private ViewsCache viewsCache = new ViewsCache(60_000, 100);
+
     @InjectMocks
     private CompilationServiceImpl compilationService;
 
@@ -472,30 +479,67 @@ class CompilationServiceImplTest {
         compilationDto.setPinned(false);
         compilationDto.setEvents(Collections.emptyList());
 
+        when(compilationRepository.findVersionById(compId)).thenReturn(Optional.of(new CompilationVersion(0L, 0L, 0L)));
         when(compilationRepository.findById(compId)).thenReturn(Optional.of(compilation));
         when(compilationMapper.toDto(compilation)).thenReturn(compilationDto);
         when(eventService.addViewsAndConfirmedRequestsToShortEvents(anyList())).thenReturn(Collections.emptyList());
 
-        CompilationDto result = compilationService.getCompilationById(compId);
+        ETagged<CompilationDto> result = compilationService.getCompilationById(compId);
 
-        assertThat(result).isEqualTo(compilationDto);
+        assertThat(result.body()).isEqualTo(compilationDto);
+        assertThat(compilationService.getCompilationETag(compId)).contains(result.etag());
         verify(compilationRepository).findById(compId);
         verify(compilationMapper).toDto(compilation);
         verify(eventService, never()).addViewsAndConfirmedRequestsToShortEvents(anyList());
     }
 
+    @Test
+    @DisplayName("ETag подборки строится по версиям и закэшированным просмотрам без загрузки событий")
+    void getCompilationETag_shouldUseVersionsAndCachedViews() {
+        Long compId = 1L;
+        Event event = new Event();
+        event.setId(5L);
+        Compilation compilation = new Compilation();
+        compilation.setId(compId);
+        compilation.setEvents(Set.of(event));
+        CompilationDto compilationDto = new CompilationDto();
+        compilationDto.setId(compId);
+        EventShortDto shortDto = new EventShortDto();
+        shortDto.setId(5L);
+        shortDto.setViews(7L);
+
+        when(compilationRepository.findVersionById(compId))
+                .thenReturn(Optional.of(new CompilationVersion(1L, 1L, 3L)));
+        when(compilationRepository.findById(compId)).thenReturn(Optional.of(compilation));
+        when(compilationMapper.toDto(compilation)).thenReturn(compilationDto);
+        when(eventService.addViewsAndConfirmedRequestsToShortEvents(anyList())).thenReturn(List.of(shortDto));
+
+        assertThat(compilationService.getCompilationETag(compId)).isEmpty();
+
+        String etag = compilationService.getCompilationById(compId).etag();
+        clearInvocations(compilationRepository, eventService);
+
+        assertThat(compilationService.getCompilationETag(compId)).contains(etag);
+        verify(compilationRepository, never()).findById(compId);
+        verifyNoInteractions(eventService);
+
+        when(compilationRepository.findVersionById(compId))
+                .thenReturn(Optional.of(new CompilationVersion(1L, 1L, 4L)));
+        assertThat(compilationService.getCompilationETag(compId)).isPresent().get().isNotEqualTo(etag);
+    }
+
     @Test
     @DisplayName("Получение подборки по ID - подборка не найдена")
     void getCompilationById_notFound() {
         Long compId = 99L;
 
-        when(compilationRepository.findById(compId)).thenReturn(Optional.empty());
+        when(compilationRepository.findVersionById(compId)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> compilationService.getCompilationById(compId))
                 .isInstanceOf(NotFoundException.class)
                 .hasMessageContaining("Подборка с ID " + compId + " не найдена");
 
-        verify(compilationRepository).findById(compId);
+        verify(compilationRepository).findVersionById(compId);
         verify(compilationMapper, never()).toDto(any(Compilation.class));
     }
 }
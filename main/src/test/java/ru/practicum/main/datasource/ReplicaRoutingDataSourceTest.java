@@ -0,0 +1,78 @@
+package ru.practicum.main.datasource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReplicaRoutingDataSourceTest {
+    private MeterRegistry registry;
+    private DataSource replica;
+    private ReplicaLagMonitor monitor;
+    private ReplicaRoutingDataSource routing;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        replica = mock(DataSource.class);
+        monitor = new ReplicaLagMonitor(replica, 1000, registry);
+        routing = new ReplicaRoutingDataSource(mock(DataSource.class), replica, monitor, registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    @DisplayName("Читающая транзакция должна уходить на реплику, пока отставание в пределах нормы")
+    void readOnlyTransaction_shouldUseReplica() {
+        monitor.update(200);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertThat(routing.determineCurrentLookupKey()).isEqualTo(ReplicaRoutingDataSource.REPLICA);
+        assertThat(registry.get("datasource.routing").tag("target", "replica").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Пишущая транзакция должна уходить на основную базу")
+    void writeTransaction_shouldUsePrimary() {
+        monitor.update(0);
+
+        assertThat(routing.determineCurrentLookupKey()).isEqualTo(ReplicaRoutingDataSource.PRIMARY);
+    }
+
+    @Test
+    @DisplayName("При отставании реплики больше допустимого чтение должно уходить на основную базу")
+    void laggingReplica_shouldFallBackToPrimary() {
+        monitor.update(200);
+        monitor.update(5000);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertThat(routing.determineCurrentLookupKey()).isEqualTo(ReplicaRoutingDataSource.PRIMARY);
+        assertThat(registry.get("datasource.replica.available").gauge().value()).isZero();
+    }
+
+    @Test
+    @DisplayName("Недоступная реплика должна исключаться из маршрутизации")
+    void unreachableReplica_shouldFallBackToPrimary() throws SQLException {
+        monitor.update(0);
+        when(replica.getConnection()).thenThrow(new SQLException("connection refused"));
+
+        monitor.check();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertThat(monitor.isAvailable()).isFalse();
+        assertThat(routing.determineCurrentLookupKey()).isEqualTo(ReplicaRoutingDataSource.PRIMARY);
+    }
+}
@@ -8,10 +8,12 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.main.category.dto.CategoryDto;
 import ru.practicum.main.event.dto.EventFullDto;
 import ru.practicum.main.event.dto.UpdateEventAdminRequest;
+import ru.practicum.main.event.model.Event;
 import ru.practicum.main.event.model.EventState;
 import ru.practicum.main.event.model.EventAdminStateAction;
 import ru.practicum.main.event.service.EventService;
@@ -183,6 +185,23 @@ class AdminEventControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    @DisplayName("PATCH /admin/events/{eventId} - одновременное изменение события возвращает 409")
+    void shouldReturnConflictWhenEventWasModifiedConcurrently() throws Exception {
+        Long eventId = 1L;
+        UpdateEventAdminRequest updateRequest = createUpdateEventAdminRequest("Concurrent Update",
+                EventAdminStateAction.PUBLISH_EVENT);
+
+        Mockito.when(eventService.updateEventByAdmin(eq(eventId), any(UpdateEventAdminRequest.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Event.class, eventId));
+
+        mockMvc.perform(patch("/admin/events/{eventId}", eventId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updateRequest)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").exists());
+    }
+
     @Test
     @DisplayName("PATCH /admin/events/{eventId} - ошибка валидации при обновлении события админом (короткое название)")
     void shouldFailValidationWhenUpdatingEventByAdminWithShortTitle() throws Exception {
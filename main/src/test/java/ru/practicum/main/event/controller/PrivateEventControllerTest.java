@@ -334,7 +334,7 @@ class PrivateEventControllerTest {
                 RequestStatus.CONFIRMED);
         List<ParticipationRequestDto> requests = List.of(request1, request2);
 
-        Mockito.when(eventService.getEventRequests(eq(userId), eq(eventId))).thenReturn(requests);
+        Mockito.when(eventService.getEventRequests(eq(userId), eq(eventId), isNull(), eq(0L), isNull())).thenReturn(requests);
 
         mockMvc.perform(get("/users/{userId}/events/{eventId}/requests", userId, eventId))
                 .andExpect(status().isOk())
@@ -343,13 +343,33 @@ class PrivateEventControllerTest {
                 .andExpect(jsonPath("$[1].status").value(request2.getStatus().name()));
     }
 
+    @Test
+    @DisplayName("GET /users/{userId}/events/{eventId}/requests - фильтр по статусу и курсор")
+    void shouldGetEventRequestsFilteredByStatusAfterCursor() throws Exception {
+        Long userId = 1L;
+        Long eventId = 1L;
+        ParticipationRequestDto request = createParticipationRequestDto(21L, eventId, 2L,
+                RequestStatus.PENDING);
+
+        Mockito.when(eventService.getEventRequests(userId, eventId, RequestStatus.PENDING, 20L, 5))
+                .thenReturn(List.of(request));
+
+        mockMvc.perform(get("/users/{userId}/events/{eventId}/requests", userId, eventId)
+                        .param("status", "PENDING")
+                        .param("after", "20")
+                        .param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(request.getId()));
+    }
+
     @Test
     @DisplayName("GET /users/{userId}/events/{eventId}/requests - событие или юзер не найдены при получении запросов")
     void shouldReturnNotFoundWhenGettingEventRequestsEventOrUserNotFound() throws Exception {
         Long userId = 1L;
         Long eventId = 99L;
 
-        Mockito.when(eventService.getEventRequests(eq(userId), eq(eventId)))
+        Mockito.when(eventService.getEventRequests(eq(userId), eq(eventId), isNull(), eq(0L), isNull()))
                 .thenThrow(new NotFoundException("Событие с ID " + eventId + " не найдено"));
 
         mockMvc.perform(get("/users/{userId}/events/{eventId}/requests", userId, eventId))
@@ -429,4 +449,40 @@ class PrivateEventControllerTest {
                         .content(objectMapper.writeValueAsString(updateRequest)))
                 .andExpect(status().isNotFound());
     }
+
+    @Test
+    @DisplayName("POST /users/{userId}/events/{eventId}/requests/confirm-pending - подтверждение заявок до лимита")
+    void shouldConfirmPendingRequests() throws Exception {
+        Long userId = 1L;
+        Long eventId = 1L;
+
+        ParticipationRequestDto confirmedRequest = createParticipationRequestDto(10L, eventId, 2L,
+                RequestStatus.CONFIRMED);
+        ParticipationRequestDto rejectedRequest = createParticipationRequestDto(11L, eventId, 3L,
+                RequestStatus.REJECTED);
+
+        Mockito.when(eventService.confirmPendingRequests(userId, eventId))
+                .thenReturn(EventRequestStatusUpdateResult.builder()
+                        .confirmedRequests(List.of(confirmedRequest))
+                        .rejectedRequests(List.of(rejectedRequest))
+                        .build());
+
+        mockMvc.perform(post("/users/{userId}/events/{eventId}/requests/confirm-pending", userId, eventId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.confirmedRequests[0].id").value(confirmedRequest.getId()))
+                .andExpect(jsonPath("$.rejectedRequests[0].id").value(rejectedRequest.getId()));
+    }
+
+    @Test
+    @DisplayName("POST /users/{userId}/events/{eventId}/requests/confirm-pending - модерация не требуется")
+    void shouldReturnConflictWhenConfirmingPendingRequestsWithoutModeration() throws Exception {
+        Long userId = 1L;
+        Long eventId = 1L;
+
+        Mockito.when(eventService.confirmPendingRequests(userId, eventId))
+                .thenThrow(new ConflictException("Для этого события модерация заявок не требуется"));
+
+        mockMvc.perform(post("/users/{userId}/events/{eventId}/requests/confirm-pending", userId, eventId))
+                .andExpect(status().isConflict());
+    }
 }
@@ -7,11 +7,14 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.main.etag.ETagged;
 import ru.practicum.main.event.dto.EventFullDto;
 import ru.practicum.main.event.dto.EventShortDto;
 import ru.practicum.main.event.service.EventService;
+import ru.practicum.main.event.service.TrendingEventService;
 
 import java.util.List;
+import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -25,6 +28,9 @@ class PublicEventControllerTest {
     @MockBean
     private EventService eventService;
 
+    @MockBean
+    private TrendingEventService trendingEventService;
+
     @Test
     @DisplayName("GET /events - успешное получение опубликованных событий")
     void getPublishedEvents_shouldReturnOk() throws Exception {
@@ -43,9 +49,42 @@ class PublicEventControllerTest {
     @DisplayName("GET /events/{id} - успешное получение опубликованного события по ID")
     void getPublishedEventById_shouldReturnOk() throws Exception {
         Mockito.when(eventService.getPublishedEventById(eq(1L), any()))
-                .thenReturn(new EventFullDto());
+                .thenReturn(new ETagged<>(new EventFullDto(), "\"event-1-0-0\""));
+        Mockito.when(eventService.getPublishedEventETag(1L)).thenReturn(Optional.empty());
 
         mockMvc.perform(get("/events/1"))
                 .andExpect(status().isOk());
     }
+
+    @Test
+    @DisplayName("GET /events/{id} - ответ содержит ETag, совпадающий If-None-Match даёт 304 без сборки DTO")
+    void getPublishedEventById_shouldReturnNotModifiedForMatchingETag() throws Exception {
+        Mockito.when(eventService.getPublishedEventETag(1L))
+                .thenReturn(Optional.empty(), Optional.of("\"event-1-3-abc\""));
+        Mockito.when(eventService.getPublishedEventById(eq(1L), any()))
+                .thenReturn(new ETagged<>(new EventFullDto(), "\"event-1-3-abc\""));
+
+        mockMvc.perform(get("/events/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"event-1-3-abc\""));
+        mockMvc.perform(get("/events/1").header("If-None-Match", "\"event-1-3-abc\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        Mockito.verify(eventService, Mockito.times(1)).getPublishedEventById(eq(1L), any());
+        Mockito.verify(eventService, Mockito.times(1)).registerView(any());
+    }
+
+    @Test
+    @DisplayName("GET /events/trending - получение трендовых событий из готового рейтинга")
+    void getTrendingEvents_shouldReturnOk() throws Exception {
+        Mockito.when(trendingEventService.getTrendingEvents(0, 10))
+                .thenReturn(List.of(new EventShortDto()));
+
+        mockMvc.perform(get("/events/trending"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1));
+
+        Mockito.verify(eventService, Mockito.never()).getPublishedEventById(any(), any());
+    }
 }
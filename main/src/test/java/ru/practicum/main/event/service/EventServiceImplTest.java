@@ -1,5 +1,8 @@
 package ru.practicum.main.event.service;
 
+import jakarta.servlet.http.HttpServletRequest;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -7,6 +10,8 @@ import org.junit.jupiter.api.Test;
 import org.mockito.*;
 import ru.practicum.main.category.model.Category;
 import ru.practicum.main.category.repository.CategoryRepository;
+import ru.practicum.main.etag.ETagged;
+import ru.practicum.main.etag.ViewsCache;
 import ru.practicum.main.event.dto.*;
 import ru.practicum.main.event.mapper.EventMapper;
 import ru.practicum.main.event.model.*;
@@ -17,15 +22,19 @@ import ru.practicum.main.exception.NotFoundException;
 import ru.practicum.main.location.dto.LocationDto;
 import ru.practicum.main.location.model.Location;
 import ru.practicum.main.location.repository.LocationRepository;
+import ru.practicum.main.request.model.Request;
 import ru.practicum.main.request.model.RequestStatus;
 import ru.practicum.main.request.repository.RequestRepository;
 import ru.practicum.main.user.model.User;
 import ru.practicum.main.user.repository.UserRepository;
+import ru.practicum.stats.client.StatsClient;
+import ru.practicum.stats.dto.ViewStats;
 
 import java.time.LocalDateTime;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 class EventServiceImplTest {
@@ -50,6 +59,15 @@ class EventServiceImplTest {
     @Mock
     private EventMapper eventMapper;
 
+    @Mock
+    private StatsClient statsClient;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private ViewsCache viewsCache = new ViewsCache(60_000, 100);
+
     @Captor
     private ArgumentCaptor<Event> eventCaptor;
 
@@ -167,13 +185,45 @@ class EventServiceImplTest {
         request.setStatus(RequestStatus.CONFIRMED);
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(new User()));
-        when(eventRepository.findByIdAndInitiatorId(eventId, userId)).thenReturn(Optional.of(event));
+        when(eventRepository.findWithVersionIncrementByIdAndInitiatorId(eventId, userId))
+                .thenReturn(Optional.of(event));
         when(requestRepository.countByEventIdAndStatus(eventId, RequestStatus.CONFIRMED)).thenReturn(1L);
 
         assertThrows(ConflictException.class,
                 () -> service.updateEventRequestStatus(userId, eventId, request));
     }
 
+    @Test
+    @DisplayName("Обновление статуса заявок - заявка не в статусе PENDING")
+    void updateRequestStatusNotPending() {
+        Long userId = 1L;
+        Long eventId = 2L;
+
+        Event event = new Event();
+        event.setId(eventId);
+        event.setParticipantLimit(10);
+        event.setRequestModeration(true);
+
+        Request confirmed = new Request();
+        confirmed.setId(5L);
+        confirmed.setEvent(event);
+        confirmed.setStatus(RequestStatus.CONFIRMED);
+
+        EventRequestStatusUpdateRequest request = new EventRequestStatusUpdateRequest();
+        request.setRequestIds(List.of(5L, 6L));
+        request.setStatus(RequestStatus.CONFIRMED);
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(new User()));
+        when(eventRepository.findWithVersionIncrementByIdAndInitiatorId(eventId, userId))
+                .thenReturn(Optional.of(event));
+        when(requestRepository.countByEventIdAndStatus(eventId, RequestStatus.CONFIRMED)).thenReturn(1L);
+        when(requestRepository.findNotModeratable(eventId, List.of(5L, 6L))).thenReturn(List.of(confirmed));
+
+        assertThrows(ConflictException.class,
+                () -> service.updateEventRequestStatus(userId, eventId, request));
+        verify(requestRepository, never()).moderatePending(anyLong(), anyList(), anyLong());
+    }
+
     @Test
     @DisplayName("Получение опубликованного события - не опубликовано")
     void getPublishedEventNotPublished() {
@@ -185,4 +235,58 @@ class EventServiceImplTest {
 
         assertThrows(NotFoundException.class, () -> service.getPublishedEventById(1L, mock()));
     }
+
+    @Test
+    @DisplayName("ETag опубликованного события строится по версии и закэшированным просмотрам без запроса статистики")
+    void getPublishedEventETagUsesVersionAndCachedViews() {
+        Event event = new Event();
+        event.setId(1L);
+        event.setState(EventState.PUBLISHED);
+        event.setVersion(3L);
+        event.setCreatedOn(LocalDateTime.of(2025, 5, 1, 10, 0));
+        HttpServletRequest request = mock();
+        when(request.getRequestURI()).thenReturn("/events/1");
+
+        when(eventRepository.findVersionByIdAndState(1L, EventState.PUBLISHED))
+                .thenReturn(Optional.of(3L), Optional.of(3L), Optional.of(4L));
+        when(eventRepository.findById(1L)).thenReturn(Optional.of(event));
+        when(eventMapper.toFullDto(event)).thenReturn(new EventFullDto());
+        when(requestRepository.countConfirmedRequestsForEvents(List.of(1L)))
+                .thenReturn(List.<Object[]>of(new Object[]{1L, 2L}));
+        when(statsClient.getStats(any(), any(), eq(List.of("/events/1")), eq(true)))
+                .thenReturn(List.of(new ViewStats("ewm", "/events/1", 10)));
+
+        assertEquals(Optional.empty(), service.getPublishedEventETag(1L));
+
+        ETagged<EventFullDto> built = service.getPublishedEventById(1L, request);
+        clearInvocations(statsClient, requestRepository);
+
+        assertEquals("\"event-1-3-10\"", built.etag());
+        assertEquals(Optional.of(built.etag()), service.getPublishedEventETag(1L));
+        assertEquals(Optional.of("\"event-1-4-10\""), service.getPublishedEventETag(1L));
+        verify(statsClient, never()).getStats(any(), any(), anyList(), anyBoolean());
+        verifyNoInteractions(requestRepository);
+    }
+
+    @Test
+    @DisplayName("Обогащение событий должно учитываться таймером и распределением числа событий")
+    void addViewsAndConfirmedRequestsToShortEventsRecordsMetrics() {
+        Event first = new Event();
+        first.setId(1L);
+        first.setCreatedOn(LocalDateTime.of(2025, 5, 1, 10, 0));
+        Event second = new Event();
+        second.setId(2L);
+        second.setCreatedOn(LocalDateTime.of(2025, 5, 2, 10, 0));
+
+        when(eventMapper.toShortDto(any())).thenAnswer(invocation -> new EventShortDto());
+        when(statsClient.getStats(any(), any(), anyList(), eq(true))).thenReturn(List.of());
+        when(requestRepository.countConfirmedRequestsForEvents(anyList())).thenReturn(List.of());
+
+        service.addViewsAndConfirmedRequestsToShortEvents(List.of(first, second));
+
+        assertEquals(1, meterRegistry.get(EventServiceImpl.ENRICHMENT_METRIC)
+                .tag("method", "addViewsAndConfirmedRequestsToShortEvents")
+                .timer().count());
+        assertEquals(2, meterRegistry.get(EventServiceImpl.ENRICHED_METRIC).summary().totalAmount());
+    }
 }
@@ -0,0 +1,111 @@
+package ru.practicum.main.event.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.ResourceAccessException;
+import ru.practicum.main.event.dto.EventShortDto;
+import ru.practicum.main.event.model.Event;
+import ru.practicum.main.event.repository.EventRepository;
+import ru.practicum.stats.client.StatsClient;
+import ru.practicum.stats.dto.ViewStats;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static ru.practicum.main.event.model.EventState.PUBLISHED;
+
+class TrendingEventServiceImplTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 5, 11, 12, 0, 5);
+
+    private StatsClient statsClient;
+    private EventRepository eventRepository;
+    private EventService eventService;
+    private Clock clock;
+    private TrendingEventServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        statsClient = mock(StatsClient.class);
+        eventRepository = mock(EventRepository.class);
+        eventService = mock(EventService.class);
+        clock = mock(Clock.class);
+        when(clock.getZone()).thenReturn(ZoneOffset.UTC);
+        when(clock.instant()).thenReturn(NOW.toInstant(ZoneOffset.UTC));
+        when(eventRepository.findAllByIdInAndState(anyCollection(), eq(PUBLISHED))).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return ids.stream().filter(id -> id != 3L).map(TrendingEventServiceImplTest::event).toList();
+        });
+        when(eventService.addViewsAndConfirmedRequestsToShortEvents(anyList())).thenAnswer(invocation -> {
+            List<Event> events = invocation.getArgument(0);
+            return events.stream().map(event -> {
+                EventShortDto dto = new EventShortDto();
+                dto.setId(event.getId());
+                return dto;
+            }).toList();
+        });
+        service = new TrendingEventServiceImpl(statsClient, eventRepository, eventService, true, 60, 10, clock);
+    }
+
+    @Test
+    @DisplayName("Рейтинг должен строиться по просмотрам опубликованных событий")
+    void refresh_shouldRankPublishedEventsByViews() {
+        when(statsClient.getStats(any(), any(), isNull(), eq(false))).thenReturn(List.of(
+                new ViewStats("ewm-main-service", "/events/1", 5L),
+                new ViewStats("ewm-main-service", "/events/2", 9L),
+                new ViewStats("ewm-main-service", "/events/3", 20L),
+                new ViewStats("ewm-main-service", "/events", 100L)));
+
+        service.refresh();
+
+        verify(statsClient).getStats(LocalDateTime.of(2025, 5, 11, 11, 0), LocalDateTime.of(2025, 5, 11, 11, 59, 59),
+                null, false);
+        List<EventShortDto> trending = service.getTrendingEvents(0, 10);
+        assertEquals(List.of(2L, 1L), trending.stream().map(EventShortDto::getId).toList());
+        assertEquals(1, service.getTrendingEvents(1, 10).size());
+        assertTrue(service.getTrendingEvents(5, 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Старые просмотры должны затухать, а статистика запрашиваться только за новый интервал")
+    void refresh_shouldDecayOldScoresAndPullIncrementally() {
+        when(statsClient.getStats(any(), any(), isNull(), eq(false)))
+                .thenReturn(List.of(new ViewStats("ewm-main-service", "/events/1", 10L)))
+                .thenReturn(List.of(new ViewStats("ewm-main-service", "/events/2", 6L)));
+        service.refresh();
+
+        when(clock.instant()).thenReturn(NOW.plusHours(1).toInstant(ZoneOffset.UTC));
+        service.refresh();
+
+        verify(statsClient).getStats(LocalDateTime.of(2025, 5, 11, 12, 0), LocalDateTime.of(2025, 5, 11, 12, 59, 59),
+                null, false);
+        assertEquals(List.of(2L, 1L), service.getTrendingEvents(0, 10).stream().map(EventShortDto::getId).toList());
+    }
+
+    @Test
+    @DisplayName("При недоступности сервиса статистики должен сохраняться предыдущий рейтинг")
+    void refresh_shouldKeepRanking_whenStatsUnavailable() {
+        when(statsClient.getStats(any(), any(), isNull(), eq(false)))
+                .thenReturn(List.of(new ViewStats("ewm-main-service", "/events/1", 1L)))
+                .thenThrow(new ResourceAccessException("stats down"));
+        service.refresh();
+        when(clock.instant()).thenReturn(NOW.plusMinutes(1).toInstant(ZoneOffset.UTC));
+
+        service.refresh();
+
+        assertEquals(1, service.getTrendingEvents(0, 10).size());
+    }
+
+    private static Event event(Long id) {
+        Event event = new Event();
+        event.setId(id);
+        return event;
+    }
+}
@@ -0,0 +1,74 @@
+package ru.practicum.main.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import ru.practicum.main.category.mapper.CategoryMapper;
+import ru.practicum.main.category.repository.CategoryRepository;
+import ru.practicum.main.category.service.CategoryService;
+import ru.practicum.main.category.service.CategoryServiceImpl;
+import ru.practicum.main.event.repository.EventRepository;
+import ru.practicum.main.exception.NotFoundException;
+import ru.practicum.main.request.repository.RequestRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MetricsAspectTest {
+    private MeterRegistry registry;
+    private MetricsAspect aspect;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        aspect = new MetricsAspect(registry);
+    }
+
+    @Test
+    @DisplayName("Исключение сервиса должно учитываться с исходом ERROR и именем исключения")
+    void timeService_shouldTagErrorOutcome() {
+        CategoryRepository categoryRepository = mock(CategoryRepository.class);
+        when(categoryRepository.findById(1L)).thenReturn(Optional.empty());
+        CategoryService service = proxy(new CategoryServiceImpl(categoryRepository, mock(EventRepository.class),
+                mock(CategoryMapper.class)), CategoryService.class);
+
+        assertThatThrownBy(() -> service.getCategoryById(1L)).isInstanceOf(NotFoundException.class);
+
+        assertThat(registry.get(MetricsAspect.SERVICE_METRIC)
+                .tag("class", "CategoryServiceImpl")
+                .tag("method", "getCategoryById")
+                .tag("outcome", "ERROR")
+                .tag("exception", "NotFoundException")
+                .timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Запрос репозитория должен учитываться по имени интерфейса")
+    void timeRepository_shouldTagRepository() {
+        RequestRepository repository = proxy(mock(RequestRepository.class), RequestRepository.class);
+
+        repository.countConfirmedRequestsForEvents(List.of(1L, 2L, 3L));
+        repository.countConfirmedRequestsForEvents(List.of(4L));
+
+        assertThat(registry.get(MetricsAspect.REPOSITORY_METRIC)
+                .tag("repository", "RequestRepository")
+                .tag("method", "countConfirmedRequestsForEvents")
+                .tag("outcome", "SUCCESS")
+                .timer().count()).isEqualTo(2);
+    }
+
+    private <T> T proxy(Object target, Class<T> type) {
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.addInterface(type);
+        factory.addAspect(aspect);
+        return type.cast(factory.getProxy());
+    }
+}
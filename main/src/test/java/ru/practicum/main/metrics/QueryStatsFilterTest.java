@@ -0,0 +1,73 @@
+package ru.practicum.main.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QueryStatsFilterTest {
+    private MeterRegistry registry;
+    private QueryStatsFilter filter;
+    private QueryStatsHibernateHooks.Inspector inspector;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        filter = new QueryStatsFilter(registry, true, 20, 10_000, 5);
+        inspector = new QueryStatsHibernateHooks.Inspector();
+    }
+
+    @Test
+    @DisplayName("Запрос сверх бюджета SQL должен учитываться в метриках и счётчике превышений")
+    void doFilter_shouldRecordStatementsAndBudgetExceeded() throws Exception {
+        MockHttpServletRequest request = request("/compilations");
+
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            inspector.inspect("select c from compilations c");
+            for (int i = 0; i < 24; i++) {
+                inspector.inspect("select e from events e where e.id=?");
+            }
+        });
+
+        assertThat(registry.get(QueryStatsFilter.STATEMENTS_METRIC).tag("uri", "/compilations").summary().max())
+                .isEqualTo(25);
+        assertThat(registry.get(QueryStatsFilter.BUDGET_EXCEEDED_METRIC).tag("uri", "/compilations").counter()
+                .count()).isEqualTo(1);
+        assertThat(QueryStats.current()).isNull();
+    }
+
+    @Test
+    @DisplayName("Запрос в рамках бюджета не должен считаться превышением")
+    void doFilter_shouldNotCountRequestWithinBudget() throws Exception {
+        MockHttpServletRequest request = request("/categories");
+
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            inspector.inspect("select c from categories c");
+            QueryStats stats = QueryStats.current();
+            assertThat(stats.getQueries()).containsEntry("select c from categories c", 1);
+        });
+
+        assertThat(registry.get(QueryStatsFilter.STATEMENTS_METRIC).tag("uri", "/categories").summary().count())
+                .isEqualTo(1);
+        assertThat(registry.find(QueryStatsFilter.BUDGET_EXCEEDED_METRIC).counter()).isNull();
+    }
+
+    @Test
+    @DisplayName("SQL вне HTTP-запроса не должен учитываться")
+    void inspect_shouldIgnoreStatementsOutsideRequest() {
+        assertThat(inspector.inspect("select 1")).isEqualTo("select 1");
+        assertThat(QueryStats.current()).isNull();
+    }
+
+    private static MockHttpServletRequest request(String pattern) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", pattern);
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, pattern);
+        return request;
+    }
+}
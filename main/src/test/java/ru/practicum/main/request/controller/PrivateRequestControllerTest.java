@@ -46,7 +46,7 @@ class PrivateRequestControllerTest {
                 .status(RequestStatus.CONFIRMED)
                 .build();
 
-        when(requestService.getUserRequests(userId)).thenReturn(List.of(requestDto1, requestDto2));
+        when(requestService.getUserRequests(userId, null, 0L, null)).thenReturn(List.of(requestDto1, requestDto2));
 
         mockMvc.perform(get("/users/{userId}/requests", userId))
                 .andExpect(status().isOk())
@@ -60,7 +60,7 @@ class PrivateRequestControllerTest {
     @DisplayName("GET /users/{userId}/requests - пользователь не найден")
     void shouldReturnNotFoundWhenUserRequestsUserNotFound() throws Exception {
         Long userId = 99L;
-        when(requestService.getUserRequests(userId)).thenThrow(new NotFoundException("Пользователь с ID " + userId
+        when(requestService.getUserRequests(userId, null, 0L, null)).thenThrow(new NotFoundException("Пользователь с ID " + userId
                 + " не найден"));
 
         mockMvc.perform(get("/users/{userId}/requests", userId))
@@ -80,7 +80,7 @@ class PrivateRequestControllerTest {
                 .status(RequestStatus.PENDING)
                 .build();
 
-        when(requestService.createRequest(userId, eventId)).thenReturn(responseDto);
+        when(requestService.createRequest(userId, eventId, false)).thenReturn(responseDto);
 
         mockMvc.perform(post("/users/{userId}/requests", userId)
                         .param("eventId", eventId.toString()))
@@ -97,7 +97,7 @@ class PrivateRequestControllerTest {
         Long userId = 1L;
         Long eventId = 99L;
 
-        when(requestService.createRequest(userId, eventId))
+        when(requestService.createRequest(userId, eventId, false))
                 .thenThrow(new NotFoundException("Событие с ID " + eventId + " не найдено"));
 
         mockMvc.perform(post("/users/{userId}/requests", userId)
@@ -111,7 +111,7 @@ class PrivateRequestControllerTest {
         Long userId = 1L;
         Long eventId = 100L;
 
-        when(requestService.createRequest(userId, eventId))
+        when(requestService.createRequest(userId, eventId, false))
                 .thenThrow(new ConflictException("Запрос на участие уже существует."));
 
         mockMvc.perform(post("/users/{userId}/requests", userId)
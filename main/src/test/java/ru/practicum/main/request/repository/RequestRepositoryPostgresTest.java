@@ -0,0 +1,245 @@
+package ru.practicum.main.request.repository;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.main.request.model.ModeratedRequest;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Нативные CTE заявок написаны под PostgreSQL (FOR UPDATE, SKIP LOCKED, UPDATE ... FROM ... RETURNING),
+ * поэтому проверяются на встроенном PostgreSQL со схемой из миграций. Каждый вызов выполняется в своей
+ * транзакции, как в сервисе.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RequestRepositoryPostgresTest {
+    private static final EmbeddedPostgres POSTGRES = start();
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 5, 1, 10, 0);
+    private static final long EVENT_ID = 1L;
+    private static final long OTHER_EVENT_ID = 2L;
+
+    @Autowired
+    private RequestRepository requestRepository;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactions;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> POSTGRES.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "");
+    }
+
+    @AfterAll
+    static void stop() throws IOException {
+        POSTGRES.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        transactions = new TransactionTemplate(transactionManager);
+        jdbc.execute("TRUNCATE requests, events, locations, categories, users CASCADE");
+        jdbc.update("INSERT INTO categories (id, name) VALUES (1, 'category')");
+        jdbc.update("INSERT INTO locations (id, lat, lon) VALUES (1, 55.75, 37.62)");
+        for (long userId = 1; userId <= 10; userId++) {
+            jdbc.update("INSERT INTO users (id, email, name) VALUES (?, ?, ?)", userId, "user" + userId + "@mail.ru",
+                    "user" + userId);
+        }
+        event(EVENT_ID);
+        event(OTHER_EVENT_ID);
+    }
+
+    @Test
+    @DisplayName("moderatePending должен подтверждать первые capacity заявок из списка по времени подачи, "
+            + "а остальные отклонять")
+    void moderatePending_ShouldConfirmUpToCapacityInCreatedOrder() {
+        request(10, EVENT_ID, 2, "PENDING", T0.plusMinutes(3));
+        request(11, EVENT_ID, 3, "PENDING", T0.plusMinutes(1));
+        request(12, EVENT_ID, 4, "PENDING", T0.plusMinutes(2));
+        request(13, EVENT_ID, 5, "PENDING", T0);
+        request(14, EVENT_ID, 6, "CONFIRMED", T0);
+        request(15, OTHER_EVENT_ID, 2, "PENDING", T0);
+
+        List<ModeratedRequest> moderated = transactions.execute(status ->
+                requestRepository.moderatePending(EVENT_ID, List.of(10L, 11L, 12L, 14L, 15L), 2));
+
+        assertThat(statuses(moderated)).containsExactlyInAnyOrderEntriesOf(Map.of(
+                11L, "CONFIRMED", 12L, "CONFIRMED", 10L, "REJECTED"));
+        assertThat(statuses()).containsAllEntriesOf(Map.of(
+                10L, "REJECTED", 11L, "CONFIRMED", 12L, "CONFIRMED",
+                13L, "PENDING", 14L, "CONFIRMED", 15L, "PENDING"));
+        assertThat(jdbc.queryForObject("SELECT version FROM requests WHERE id = 11", Long.class)).isEqualTo(1L);
+        assertThat(jdbc.queryForObject("SELECT version FROM requests WHERE id = 13", Long.class)).isZero();
+    }
+
+    @Test
+    @DisplayName("moderatePending при нулевом остатке мест должен отклонить все заявки из списка")
+    void moderatePending_ShouldRejectAllWhenNoCapacity() {
+        request(10, EVENT_ID, 2, "PENDING", T0);
+        request(11, EVENT_ID, 3, "PENDING", T0.plusMinutes(1));
+
+        List<ModeratedRequest> moderated = transactions.execute(status ->
+                requestRepository.moderatePending(EVENT_ID, List.of(10L, 11L), 0));
+
+        assertThat(statuses(moderated)).containsExactlyInAnyOrderEntriesOf(Map.of(
+                10L, "REJECTED", 11L, "REJECTED"));
+    }
+
+    @Test
+    @DisplayName("moderateAllPending должен подтверждать ожидающие заявки события по времени подачи "
+            + "и отклонять остаток, не трогая другие статусы и события")
+    void moderateAllPending_ShouldConfirmInCreatedOrderAndRejectRemainder() {
+        request(10, EVENT_ID, 2, "PENDING", T0.plusMinutes(2));
+        request(11, EVENT_ID, 3, "PENDING", T0);
+        request(12, EVENT_ID, 4, "PENDING", T0.plusMinutes(1));
+        request(13, EVENT_ID, 5, "CONFIRMED", T0);
+        request(14, EVENT_ID, 6, "WAITLISTED", T0);
+        request(15, OTHER_EVENT_ID, 2, "PENDING", T0);
+
+        List<ModeratedRequest> moderated = transactions.execute(status ->
+                requestRepository.moderateAllPending(EVENT_ID, 2));
+
+        assertThat(statuses(moderated)).containsExactlyInAnyOrderEntriesOf(Map.of(
+                11L, "CONFIRMED", 12L, "CONFIRMED", 10L, "REJECTED"));
+        assertThat(statuses()).containsAllEntriesOf(Map.of(
+                13L, "CONFIRMED", 14L, "WAITLISTED", 15L, "PENDING"));
+    }
+
+    @Test
+    @DisplayName("promoteFromWaitlist должен переводить самую раннюю заявку из листа ожидания")
+    void promoteFromWaitlist_ShouldPromoteEarliestWaiter() {
+        request(10, EVENT_ID, 2, "WAITLISTED", T0.plusMinutes(1));
+        request(11, EVENT_ID, 3, "WAITLISTED", T0);
+        request(12, EVENT_ID, 4, "PENDING", T0.minusMinutes(1));
+        request(13, OTHER_EVENT_ID, 5, "WAITLISTED", T0.minusMinutes(5));
+
+        Optional<ModeratedRequest> promoted = transactions.execute(status ->
+                requestRepository.promoteFromWaitlist(EVENT_ID, "CONFIRMED"));
+
+        assertThat(promoted).get().satisfies(request -> {
+            assertThat(request.getId()).isEqualTo(11L);
+            assertThat(request.getEventId()).isEqualTo(EVENT_ID);
+            assertThat(request.getRequesterId()).isEqualTo(3L);
+            assertThat(request.getCreated()).isEqualTo(T0);
+            assertThat(request.getStatus()).isEqualTo("CONFIRMED");
+        });
+        assertThat(statuses()).containsAllEntriesOf(Map.of(10L, "WAITLISTED", 13L, "WAITLISTED"));
+    }
+
+    @Test
+    @DisplayName("promoteFromWaitlist с пустым листом ожидания ничего не должен менять")
+    void promoteFromWaitlist_ShouldReturnEmptyWhenNoWaiters() {
+        request(10, EVENT_ID, 2, "PENDING", T0);
+
+        Optional<ModeratedRequest> promoted = transactions.execute(status ->
+                requestRepository.promoteFromWaitlist(EVENT_ID, "PENDING"));
+
+        assertThat(promoted).isEmpty();
+        assertThat(statuses()).containsEntry(10L, "PENDING");
+    }
+
+    @Test
+    @DisplayName("Две параллельные отмены должны перевести из листа ожидания двух разных ожидающих")
+    void promoteFromWaitlist_ShouldPromoteDistinctWaitersConcurrently() throws Exception {
+        request(10, EVENT_ID, 2, "WAITLISTED", T0);
+        request(11, EVENT_ID, 3, "WAITLISTED", T0.plusMinutes(1));
+        request(12, EVENT_ID, 4, "WAITLISTED", T0.plusMinutes(2));
+        CountDownLatch firstPromoted = new CountDownLatch(1);
+        CountDownLatch secondPromoted = new CountDownLatch(1);
+
+        CompletableFuture<Long> first = CompletableFuture.supplyAsync(() -> transactions.execute(status -> {
+            Long id = requestRepository.promoteFromWaitlist(EVENT_ID, "CONFIRMED").orElseThrow().getId();
+            firstPromoted.countDown();
+            await(secondPromoted);
+            return id;
+        }));
+        await(firstPromoted);
+        CompletableFuture<Long> second = CompletableFuture.supplyAsync(() -> transactions.execute(status -> {
+            Long id = requestRepository.promoteFromWaitlist(EVENT_ID, "CONFIRMED").orElseThrow().getId();
+            secondPromoted.countDown();
+            return id;
+        }));
+
+        assertThat(first.get(30, TimeUnit.SECONDS)).isEqualTo(10L);
+        assertThat(second.get(30, TimeUnit.SECONDS)).isEqualTo(11L);
+        assertThat(statuses()).containsAllEntriesOf(Map.of(
+                10L, "CONFIRMED", 11L, "CONFIRMED", 12L, "WAITLISTED"));
+    }
+
+    private void event(long id) {
+        jdbc.update("INSERT INTO events (id, annotation, category_id, created_on, description, event_date, "
+                        + "initiator_id, location_id, paid, participant_limit, published_on, request_moderation, "
+                        + "state, title) VALUES (?, 'annotation', 1, ?, 'description', ?, 1, 1, false, 10, ?, true, "
+                        + "'PUBLISHED', 'title')",
+                id, T0.minusDays(10), T0.plusDays(10), T0.minusDays(9));
+    }
+
+    private void request(long id, long eventId, long requesterId, String status, LocalDateTime created) {
+        jdbc.update("INSERT INTO requests (id, created, event_id, requester_id, status) VALUES (?, ?, ?, ?, ?)",
+                id, created, eventId, requesterId, status);
+    }
+
+    private Map<Long, String> statuses() {
+        return jdbc.query("SELECT id, status FROM requests", rs -> {
+            Map<Long, String> statuses = new HashMap<>();
+            while (rs.next()) {
+                statuses.put(rs.getLong("id"), rs.getString("status"));
+            }
+            return statuses;
+        });
+    }
+
+    private static Map<Long, String> statuses(List<ModeratedRequest> requests) {
+        return requests.stream().collect(Collectors.toMap(ModeratedRequest::getId, ModeratedRequest::getStatus));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(30, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static EmbeddedPostgres start() {
+        try {
+            return EmbeddedPostgres.start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
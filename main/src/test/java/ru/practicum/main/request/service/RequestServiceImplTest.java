@@ -6,6 +6,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import ru.practicum.main.event.model.Event;
 import ru.practicum.main.event.model.EventState;
 import ru.practicum.main.event.repository.EventRepository;
@@ -19,6 +21,7 @@ import ru.practicum.main.request.repository.RequestRepository;
 import ru.practicum.main.user.model.User;
 import ru.practicum.main.user.repository.UserRepository;
 
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
 
@@ -47,19 +50,32 @@ class RequestServiceImplTest {
     @DisplayName("Успешное получение запросов пользователя")
     void getUserRequestsSuccess() {
         Long userId = 1L;
-        Request request = new Request();
         ParticipationRequestDto dto = new ParticipationRequestDto();
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(new User()));
-        when(requestRepository.findByRequesterId(userId)).thenReturn(List.of(request));
-        when(requestMapper.toDto(request)).thenReturn(dto);
+        when(requestRepository.findPageByRequesterId(eq(userId), eq(EnumSet.of(RequestStatus.PENDING)), eq(10L),
+                any(Pageable.class))).thenReturn(List.of(dto));
 
-        List<ParticipationRequestDto> result = requestService.getUserRequests(userId);
+        List<ParticipationRequestDto> result = requestService.getUserRequests(userId, RequestStatus.PENDING, 10L, 20);
 
         assertEquals(1, result.size());
         verify(userRepository).findById(userId);
-        verify(requestRepository).findByRequesterId(userId);
-        verify(requestMapper).toDto(request);
+        verify(requestRepository).findPageByRequesterId(userId, EnumSet.of(RequestStatus.PENDING), 10L,
+                PageRequest.of(0, 20));
+        verifyNoInteractions(requestMapper);
+    }
+
+    @Test
+    @DisplayName("Без size возвращаются все запросы пользователя")
+    void getUserRequestsWithoutSizeIsUnpaged() {
+        Long userId = 1L;
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(new User()));
+
+        requestService.getUserRequests(userId, null, 0L, null);
+
+        verify(requestRepository).findPageByRequesterId(userId, EnumSet.allOf(RequestStatus.class), 0L,
+                Pageable.unpaged());
     }
 
     @Test
@@ -67,7 +83,7 @@ class RequestServiceImplTest {
     void getUserRequestsUserNotFound() {
         when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
 
-        assertThrows(NotFoundException.class, () -> requestService.getUserRequests(1L));
+        assertThrows(NotFoundException.class, () -> requestService.getUserRequests(1L, null, 0L, 100));
     }
 
     @Test
@@ -90,13 +106,13 @@ class RequestServiceImplTest {
         ParticipationRequestDto dto = new ParticipationRequestDto();
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(eventRepository.findById(eventId)).thenReturn(Optional.of(event));
+        when(eventRepository.findWithVersionIncrementById(eventId)).thenReturn(Optional.of(event));
         when(requestRepository.findByEventIdAndRequesterId(eventId, userId)).thenReturn(Optional.empty());
         when(requestRepository.countByEventIdAndStatus(eventId, RequestStatus.CONFIRMED)).thenReturn(0L);
         when(requestRepository.save(any(Request.class))).thenReturn(saved);
         when(requestMapper.toDto(saved)).thenReturn(dto);
 
-        ParticipationRequestDto result = requestService.createRequest(userId, eventId);
+        ParticipationRequestDto result = requestService.createRequest(userId, eventId, false);
 
         assertEquals(dto, result);
     }
@@ -106,27 +122,27 @@ class RequestServiceImplTest {
     void createRequestUserNotFound() {
         when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
 
-        assertThrows(NotFoundException.class, () -> requestService.createRequest(1L, 2L));
+        assertThrows(NotFoundException.class, () -> requestService.createRequest(1L, 2L, false));
     }
 
     @Test
     @DisplayName("Создание запроса — событие не найдено")
     void createRequestEventNotFound() {
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(new User()));
-        when(eventRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(eventRepository.findWithVersionIncrementById(anyLong())).thenReturn(Optional.empty());
 
-        assertThrows(NotFoundException.class, () -> requestService.createRequest(1L, 2L));
+        assertThrows(NotFoundException.class, () -> requestService.createRequest(1L, 2L, false));
     }
 
     @Test
     @DisplayName("Создание запроса — запрос уже существует")
     void createRequestAlreadyExists() {
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(new User()));
-        when(eventRepository.findById(anyLong())).thenReturn(Optional.of(new Event()));
+        when(eventRepository.findWithVersionIncrementById(anyLong())).thenReturn(Optional.of(new Event()));
         when(requestRepository.findByEventIdAndRequesterId(anyLong(), anyLong()))
                 .thenReturn(Optional.of(new Request()));
 
-        assertThrows(ConflictException.class, () -> requestService.createRequest(1L, 2L));
+        assertThrows(ConflictException.class, () -> requestService.createRequest(1L, 2L, false));
     }
 
     @Test
@@ -139,11 +155,11 @@ class RequestServiceImplTest {
         event.setInitiator(initiator);
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(new User()));
-        when(eventRepository.findById(anyLong())).thenReturn(Optional.of(event));
+        when(eventRepository.findWithVersionIncrementById(anyLong())).thenReturn(Optional.of(event));
         when(requestRepository.findByEventIdAndRequesterId(anyLong(), anyLong()))
                 .thenReturn(Optional.empty());
 
-        assertThrows(ConflictException.class, () -> requestService.createRequest(userId, 2L));
+        assertThrows(ConflictException.class, () -> requestService.createRequest(userId, 2L, false));
     }
 
     @Test
@@ -163,11 +179,11 @@ class RequestServiceImplTest {
         event.setState(EventState.PENDING);
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(requester));
-        when(eventRepository.findById(anyLong())).thenReturn(Optional.of(event));
+        when(eventRepository.findWithVersionIncrementById(anyLong())).thenReturn(Optional.of(event));
         when(requestRepository.findByEventIdAndRequesterId(anyLong(), anyLong()))
                 .thenReturn(Optional.empty());
 
-        assertThrows(ConflictException.class, () -> requestService.createRequest(userId, 3L));
+        assertThrows(ConflictException.class, () -> requestService.createRequest(userId, 3L, false));
     }
 
     @Test
@@ -189,13 +205,103 @@ class RequestServiceImplTest {
         event.setRequestModeration(true);
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(requester));
-        when(eventRepository.findById(anyLong())).thenReturn(Optional.of(event));
+        when(eventRepository.findWithVersionIncrementById(anyLong())).thenReturn(Optional.of(event));
+        when(requestRepository.findByEventIdAndRequesterId(anyLong(), anyLong()))
+                .thenReturn(Optional.empty());
+        when(requestRepository.countByEventIdAndStatus(anyLong(), eq(RequestStatus.CONFIRMED)))
+                .thenReturn(1L);
+
+        assertThrows(ConflictException.class, () -> requestService.createRequest(userId, 3L, false));
+    }
+
+    @Test
+    @DisplayName("Создание запроса — лимит исчерпан, заявка попадает в лист ожидания")
+    void createRequestWaitlistedWhenLimitReached() {
+        Long userId = 1L;
+
+        User requester = new User();
+        requester.setId(userId);
+
+        User initiator = new User();
+        initiator.setId(2L);
+
+        Event event = new Event();
+        event.setInitiator(initiator);
+        event.setState(EventState.PUBLISHED);
+        event.setParticipantLimit(1);
+        event.setRequestModeration(false);
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(requester));
+        when(eventRepository.findWithVersionIncrementById(anyLong())).thenReturn(Optional.of(event));
         when(requestRepository.findByEventIdAndRequesterId(anyLong(), anyLong()))
                 .thenReturn(Optional.empty());
         when(requestRepository.countByEventIdAndStatus(anyLong(), eq(RequestStatus.CONFIRMED)))
                 .thenReturn(1L);
+        when(requestRepository.save(any(Request.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(requestMapper.toDto(any(Request.class))).thenReturn(new ParticipationRequestDto());
+
+        requestService.createRequest(userId, 3L, true);
+
+        verify(requestRepository).save(argThat(request -> request.getStatus() == RequestStatus.WAITLISTED));
+    }
+
+    @Test
+    @DisplayName("Отмена подтверждённого запроса продвигает первого из листа ожидания")
+    void cancelConfirmedRequestPromotesWaitlist() {
+        Long userId = 1L;
+        Long requestId = 5L;
+
+        Event event = new Event();
+        event.setId(3L);
+        event.setRequestModeration(false);
+        event.setParticipantLimit(2);
+
+        Request request = new Request();
+        request.setId(requestId);
+        request.setEvent(event);
+        request.setStatus(RequestStatus.CONFIRMED);
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(new User()));
+        when(requestRepository.findByIdAndRequesterId(requestId, userId)).thenReturn(Optional.of(request));
+        when(requestRepository.save(any(Request.class))).thenReturn(request);
+        when(requestMapper.toDto(request)).thenReturn(new ParticipationRequestDto());
+        when(eventRepository.findWithVersionIncrementById(3L)).thenReturn(Optional.of(event));
+        when(requestRepository.countByEventIdAndStatus(3L, RequestStatus.CONFIRMED)).thenReturn(1L);
+        when(requestRepository.promoteFromWaitlist(3L, RequestStatus.CONFIRMED.name())).thenReturn(Optional.empty());
+
+        requestService.cancelRequest(userId, requestId);
+
+        assertEquals(RequestStatus.CANCELED, request.getStatus());
+        verify(requestRepository).promoteFromWaitlist(3L, RequestStatus.CONFIRMED.name());
+    }
+
+    @Test
+    @DisplayName("Отмена не продвигает лист ожидания, если освободившееся место уже заняли под блокировкой события")
+    void cancelConfirmedRequestSkipsPromotionWhenSeatTaken() {
+        Long userId = 1L;
+        Long requestId = 5L;
+
+        Event event = new Event();
+        event.setId(3L);
+        event.setRequestModeration(false);
+        event.setParticipantLimit(2);
+
+        Request request = new Request();
+        request.setId(requestId);
+        request.setEvent(event);
+        request.setStatus(RequestStatus.CONFIRMED);
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(new User()));
+        when(requestRepository.findByIdAndRequesterId(requestId, userId)).thenReturn(Optional.of(request));
+        when(requestRepository.save(any(Request.class))).thenReturn(request);
+        when(requestMapper.toDto(request)).thenReturn(new ParticipationRequestDto());
+        when(eventRepository.findWithVersionIncrementById(3L)).thenReturn(Optional.of(event));
+        when(requestRepository.countByEventIdAndStatus(3L, RequestStatus.CONFIRMED)).thenReturn(2L);
+
+        requestService.cancelRequest(userId, requestId);
 
-        assertThrows(ConflictException.class, () -> requestService.createRequest(userId, 3L));
+        verify(eventRepository).findWithVersionIncrementById(3L);
+        verify(requestRepository, never()).promoteFromWaitlist(anyLong(), anyString());
     }
 
     @Test
@@ -217,6 +323,7 @@ class RequestServiceImplTest {
 
         assertEquals(dto, result);
         assertEquals(RequestStatus.CANCELED, request.getStatus());
+        verify(requestRepository, never()).promoteFromWaitlist(anyLong(), anyString());
     }
 
     @Test
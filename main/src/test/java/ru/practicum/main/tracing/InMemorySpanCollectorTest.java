@@ -0,0 +1,60 @@
+package ru.practicum.main.tracing;
+
+import brave.handler.MutableSpan;
+import brave.handler.SpanHandler;
+import brave.propagation.TraceContext;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InMemorySpanCollectorTest {
+
+    @Test
+    @DisplayName("Спаны должны группироваться по трассе и сортироваться по времени начала")
+    void getTrace_shouldGroupSpansByTrace() {
+        InMemorySpanCollector collector = new InMemorySpanCollector(10);
+
+        finish(collector, 1, 2, 1L, "EventRepository.findById", 1_100, 1_300);
+        finish(collector, 1, 3, 1L, "StatsClient.getStats", 1_400, 1_900);
+        finish(collector, 1, 1, null, "http get /events/{id}", 1_000, 2_000);
+        finish(collector, 7, 8, null, "http get /categories", 5_000, 5_100);
+
+        List<SpanRecord> trace = collector.getTrace(TraceContext.newBuilder().traceId(1).spanId(1).build()
+                .traceIdString());
+        assertThat(trace).extracting(SpanRecord::name)
+                .containsExactly("http get /events/{id}", "EventRepository.findById", "StatsClient.getStats");
+        assertThat(trace.get(2).durationMicros()).isEqualTo(500);
+
+        List<InMemorySpanCollector.TraceSummary> recent = collector.getRecentTraces(10);
+        assertThat(recent).extracting(InMemorySpanCollector.TraceSummary::root)
+                .containsExactly("http get /categories", "http get /events/{id}");
+        assertThat(recent.get(1).durationMicros()).isEqualTo(1_000);
+        assertThat(recent.get(1).spans()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("При превышении лимита должны вытесняться самые старые трассы")
+    void end_shouldEvictOldestTraces() {
+        InMemorySpanCollector collector = new InMemorySpanCollector(2);
+
+        finish(collector, 1, 1, null, "first", 0, 10);
+        finish(collector, 2, 1, null, "second", 20, 30);
+        finish(collector, 3, 1, null, "third", 40, 50);
+
+        assertThat(collector.getRecentTraces(10)).extracting(InMemorySpanCollector.TraceSummary::root)
+                .containsExactly("third", "second");
+    }
+
+    private static void finish(InMemorySpanCollector collector, long traceId, long spanId, Long parentId,
+                               String name, long start, long finish) {
+        TraceContext context = TraceContext.newBuilder().traceId(traceId).spanId(spanId).parentId(parentId).build();
+        MutableSpan span = new MutableSpan(context, null);
+        span.name(name);
+        span.startTimestamp(start);
+        span.finishTimestamp(finish);
+        collector.end(context, span, SpanHandler.Cause.FINISHED);
+    }
+}
@@ -0,0 +1,43 @@
+package ru.practicum.stats.reactive;
+
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.AutoConfigurationExcludeFilter;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.TypeExcludeFilter;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import ru.practicum.stats.app.StatsApplication;
+import ru.practicum.stats.app.controller.StatsController;
+
+/**
+ * Реактивная сборка stats-app: те же сервисы, репозитории и миграции, но WebFlux на Netty вместо Spring MVC
+ * на Tomcat. Сервлетный контроллер и конфигурация StatsApplication из сканирования исключены.
+ */
+@SpringBootConfiguration
+@EnableAutoConfiguration
+@EnableScheduling
+@ComponentScan(basePackages = {"ru.practicum.stats.app", "ru.practicum.stats.reactive", "ru.practicum.common"},
+        excludeFilters = {
+                @ComponentScan.Filter(type = FilterType.CUSTOM, classes = TypeExcludeFilter.class),
+                @ComponentScan.Filter(type = FilterType.CUSTOM, classes = AutoConfigurationExcludeFilter.class),
+                @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE,
+                        classes = {StatsApplication.class, StatsController.class})})
+public class ReactiveStatsApplication {
+    public static final String PROFILE = "reactive";
+
+    public static void main(String[] args) {
+        builder().run(args);
+    }
+
+    /**
+     * Профиль reactive добавляет application-reactive.properties поверх настроек stats-app.
+     */
+    public static SpringApplicationBuilder builder() {
+        return new SpringApplicationBuilder(ReactiveStatsApplication.class)
+                .web(WebApplicationType.REACTIVE)
+                .profiles(PROFILE);
+    }
+}
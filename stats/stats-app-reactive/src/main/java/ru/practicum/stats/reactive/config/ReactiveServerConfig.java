@@ -0,0 +1,31 @@
+package ru.practicum.stats.reactive.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+@Configuration
+public class ReactiveServerConfig {
+    /**
+     * Блокирующие вызовы StatsService (JPA, HitBuffer.awaitFlushed) уходят с event loop на этот планировщик.
+     * Потоков не больше, чем соединений в пуле, а очередь ограничена: при её переполнении задача отклоняется,
+     * и контроллер отвечает 503 вместо того, чтобы копить запросы в памяти.
+     */
+    @Bean(destroyMethod = "dispose")
+    public Scheduler jdbcScheduler(@Value("${stats.reactive.jdbc.threads:10}") int threads,
+                                   @Value("${stats.reactive.jdbc.queue-capacity:1000}") int queueCapacity) {
+        return Schedulers.newBoundedElastic(threads, queueCapacity, "stats-jdbc");
+    }
+
+    /**
+     * Явная фабрика Netty: если в classpath рядом окажется Tomcat (например, в stats-benchmarks, где подключены
+     * обе сборки), автоконфигурация иначе выбрала бы его и запустила WebFlux поверх сервлетного контейнера.
+     */
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+}
@@ -0,0 +1,15 @@
+package ru.practicum.stats.reactive.config;
+
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+/**
+ * Пакет автоконфигурации здесь ru.practicum.stats.reactive, поэтому сущности и репозитории stats-app
+ * подключаются явно. Отдельный класс нужен, чтобы срезы вроде @WebFluxTest не поднимали JPA.
+ */
+@Configuration
+@EntityScan(basePackages = "ru.practicum.stats.app.model")
+@EnableJpaRepositories(basePackages = "ru.practicum.stats.app.repository")
+public class StatsPersistenceConfig {
+}
@@ -0,0 +1,101 @@
+package ru.practicum.stats.reactive.controller;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import ru.practicum.stats.app.service.StatsService;
+import ru.practicum.stats.dto.EndpointHitDto;
+import ru.practicum.stats.dto.ViewStats;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Тот же контракт, что у сервлетного StatsController, плюс потоковый приём хитов. Event loop Netty не блокируется:
+ * каждый вызов StatsService выполняется на ограниченном планировщике JDBC.
+ */
+@Slf4j
+@RestController
+public class ReactiveStatsController {
+    private final StatsService service;
+    private final Scheduler jdbcScheduler;
+    private final int ingestBatchSize;
+    private final Duration ingestFlushLatency;
+
+    public ReactiveStatsController(StatsService service,
+                                   Scheduler jdbcScheduler,
+                                   @Value("${stats.reactive.ingest.batch-size:500}") int ingestBatchSize,
+                                   @Value("${stats.reactive.ingest.flush-latency-ms:50}") long ingestFlushLatencyMs) {
+        this.service = service;
+        this.jdbcScheduler = jdbcScheduler;
+        this.ingestBatchSize = ingestBatchSize;
+        this.ingestFlushLatency = Duration.ofMillis(ingestFlushLatencyMs);
+    }
+
+    @PostMapping("/hit")
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<Void> saveHit(@RequestBody EndpointHitDto dto) {
+        log.info("Получен запрос на сохранение хита: {}", dto);
+        return Mono.<Void>fromRunnable(() -> service.save(dto))
+                .subscribeOn(jdbcScheduler);
+    }
+
+    /**
+     * Приём потока хитов в NDJSON. Хиты собираются в пачки по batch-size (или за flush-latency-ms), пачки пишутся
+     * по одной: пока пачка сохраняется, следующая не запрашивается, и Netty перестаёт читать тело запроса.
+     * Возвращает число сохранённых хитов.
+     */
+    @PostMapping(path = "/hits", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<Long> saveHits(@RequestBody Flux<EndpointHitDto> hits) {
+        return hits.bufferTimeout(ingestBatchSize, ingestFlushLatency, true)
+                .concatMap(batch -> Mono.fromCallable(() -> {
+                    service.saveAll(batch);
+                    return (long) batch.size();
+                }).subscribeOn(jdbcScheduler), 1)
+                .reduce(0L, Long::sum)
+                .doOnNext(saved -> log.info("Принят поток хитов: {}", saved));
+    }
+
+    /**
+     * С Accept: application/x-ndjson записи отдаются по одной по мере сериализации, без сборки всего JSON-массива
+     * в памяти; с application/json ответ совпадает с сервлетной версией.
+     */
+    @GetMapping(path = "/stats", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<ViewStats> getStats(@RequestParam String start, @RequestParam String end,
+                                    @RequestParam(required = false) List<String> uris,
+                                    @RequestParam(defaultValue = "false") boolean unique) {
+        log.info("Получен запрос на получение статистики: start={}, end={}, uris={}, unique={}",
+                start, end, uris, unique);
+        return Mono.fromCallable(() -> service.getStats(start, end, uris, unique))
+                .subscribeOn(jdbcScheduler)
+                .flatMapIterable(stats -> stats);
+    }
+
+    @GetMapping(path = "/stats/top", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<ViewStats> getTopStats(@RequestParam String start, @RequestParam String end,
+                                       @RequestParam(defaultValue = "10") int limit,
+                                       @RequestParam(required = false) String prefix) {
+        log.info("Получен запрос на получение top-{} статистики: start={}, end={}, prefix={}",
+                limit, start, end, prefix);
+        return Mono.fromCallable(() -> service.getTopStats(start, end, limit, prefix))
+                .subscribeOn(jdbcScheduler)
+                .flatMapIterable(stats -> stats);
+    }
+
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<Void> handleOverload(RejectedExecutionException e) {
+        log.warn("Очередь планировщика JDBC заполнена, запрос отклонён: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .build();
+    }
+}
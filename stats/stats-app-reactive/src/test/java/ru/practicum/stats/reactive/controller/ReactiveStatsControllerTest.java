@@ -0,0 +1,152 @@
+package ru.practicum.stats.reactive.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import ru.practicum.stats.app.service.StatsService;
+import ru.practicum.stats.dto.EndpointHitDto;
+import ru.practicum.stats.dto.ViewStats;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+
+@WebFluxTest(controllers = ReactiveStatsController.class, properties = "stats.reactive.ingest.batch-size=2")
+class ReactiveStatsControllerTest {
+    @Autowired
+    private WebTestClient client;
+
+    @MockBean
+    private StatsService service;
+
+    @Autowired
+    private ObjectMapper mapper;
+
+    private static final DateTimeFormatter FMT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    @TestConfiguration
+    static class SchedulerConfig {
+        @Bean(destroyMethod = "dispose")
+        Scheduler jdbcScheduler() {
+            return Schedulers.newBoundedElastic(2, 10, "test-jdbc");
+        }
+    }
+
+    @Test
+    @DisplayName("POST /hit должен вернуть 201 и вызвать сервис")
+    void saveHit_ShouldReturnCreated() {
+        client.post().uri("/hit")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(hit("/event"))
+                .exchange()
+                .expectStatus().isCreated();
+
+        Mockito.verify(service).save(any());
+    }
+
+    @Test
+    @DisplayName("POST /hits должен сохранять поток хитов пачками и вернуть их число")
+    void saveHits_ShouldSaveInBatches() {
+        String body = Stream.of(hit("/a"), hit("/b"), hit("/c"))
+                .map(this::toJson)
+                .collect(Collectors.joining("\n"));
+
+        client.post().uri("/hits")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .bodyValue(body)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(Long.class).isEqualTo(3L);
+
+        Mockito.verify(service).saveAll(List.of(hit("/a"), hit("/b")));
+        Mockito.verify(service).saveAll(List.of(hit("/c")));
+    }
+
+    @Test
+    @DisplayName("GET /stats с Accept: application/json должен вернуть массив, как сервлетная версия")
+    void getStats_ShouldReturnJsonArray() {
+        String start = "2020-01-01 00:00:00";
+        String end = "2030-01-01 00:00:00";
+        Mockito.when(service.getStats(start, end, null, false)).thenReturn(List.of(
+                new ViewStats("main", "/x", 10L),
+                new ViewStats("main", "/y", 5L)));
+
+        client.get().uri(uri -> uri.path("/stats")
+                        .queryParam("start", start)
+                        .queryParam("end", end)
+                        .build())
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[0].uri").isEqualTo("/x")
+                .jsonPath("$[0].hits").isEqualTo(10);
+    }
+
+    @Test
+    @DisplayName("GET /stats с Accept: application/x-ndjson должен отдавать записи потоком")
+    void getStats_ShouldStreamNdjson() {
+        String start = "2020-01-01 00:00:00";
+        String end = "2030-01-01 00:00:00";
+        Mockito.when(service.getStats(start, end, null, true)).thenReturn(List.of(
+                new ViewStats("main", "/x", 10L),
+                new ViewStats("main", "/y", 5L)));
+
+        client.get().uri(uri -> uri.path("/stats")
+                        .queryParam("start", start)
+                        .queryParam("end", end)
+                        .queryParam("unique", true)
+                        .build())
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBodyList(ViewStats.class)
+                .value(stats -> assertThat(stats)
+                        .containsExactly(new ViewStats("main", "/x", 10L), new ViewStats("main", "/y", 5L)));
+    }
+
+    @Test
+    @DisplayName("Переполненная очередь планировщика JDBC должна давать 503 с Retry-After")
+    void saveHit_ShouldReturnServiceUnavailable_WhenSchedulerRejects() {
+        Mockito.doThrow(new RejectedExecutionException("queue is full")).when(service).save(any());
+
+        client.post().uri("/hit")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(hit("/event"))
+                .exchange()
+                .expectStatus().isEqualTo(503)
+                .expectHeader().valueEquals(HttpHeaders.RETRY_AFTER, "1");
+    }
+
+    private EndpointHitDto hit(String uri) {
+        return new EndpointHitDto("main-service", uri, "192.168.0.1",
+                LocalDateTime.parse("2025-05-11 12:00:00", FMT));
+    }
+
+    private String toJson(EndpointHitDto dto) {
+        try {
+            return mapper.writeValueAsString(dto);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -2,8 +2,10 @@ package ru.practicum.stats.app;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
-@SpringBootApplication
+@SpringBootApplication(scanBasePackages = {"ru.practicum.stats.app", "ru.practicum.common"})
+@EnableScheduling
 public class StatsApplication {
     public static void main(String[] args) {
         SpringApplication.run(StatsApplication.class, args);
@@ -31,4 +31,13 @@ public class StatsController {
                 start, end, uris, unique);
         return service.getStats(start, end, uris, unique);
     }
+
+    @GetMapping("/stats/top")
+    public List<ViewStats> getTopStats(@RequestParam String start, @RequestParam String end,
+                                       @RequestParam(defaultValue = "10") int limit,
+                                       @RequestParam(required = false) String prefix) {
+        log.info("Получен запрос на получение top-{} статистики: start={}, end={}, prefix={}",
+                limit, start, end, prefix);
+        return service.getTopStats(start, end, limit, prefix);
+    }
 }
@@ -1,10 +1,14 @@
 package ru.practicum.stats.app.mapper;
 
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import ru.practicum.stats.app.model.EndpointHit;
 import ru.practicum.stats.dto.EndpointHitDto;
 
 @Mapper(componentModel = "spring")
 public interface EndpointHitMapper {
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "appId", ignore = true)
+    @Mapping(target = "uriId", ignore = true)
     EndpointHit toEntity(EndpointHitDto dto);
 }
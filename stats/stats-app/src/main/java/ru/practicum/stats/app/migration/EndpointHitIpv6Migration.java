@@ -0,0 +1,74 @@
+package ru.practicum.stats.app.migration;
+
+import org.flywaydb.core.api.MigrationVersion;
+import org.flywaydb.core.api.migration.Context;
+import org.flywaydb.core.api.migration.JavaMigration;
+import ru.practicum.stats.app.model.IpAddressConverter;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Arrays;
+
+/**
+ * Миграция V7: V3 сохраняла IPv6 в двоичном виде, только если адрес уже был записан как
+ * {@link java.net.InetAddress#getHostAddress()}, а сокращённые формы ({@code ::1}, {@code 2001:db8::1}) оставались
+ * текстом. Текстовые значения перекодируются текущим IpAddressConverter, и хиты одного адреса совпадают байт в байт.
+ * Текстовые значения начинаются с нулевого байта-признака, поэтому отбираются диапазоном [0x00, 0x01).
+ */
+public class EndpointHitIpv6Migration implements JavaMigration {
+    private static final int BATCH_SIZE = 1000;
+    private static final byte[] TEXT_FROM = {0};
+    private static final byte[] TEXT_TO = {1};
+
+    @Override
+    public MigrationVersion getVersion() {
+        return MigrationVersion.fromVersion("7");
+    }
+
+    @Override
+    public String getDescription() {
+        return "endpoint hit ipv6 to binary";
+    }
+
+    @Override
+    public Integer getChecksum() {
+        return null;
+    }
+
+    @Override
+    public boolean canExecuteInTransaction() {
+        return true;
+    }
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        IpAddressConverter converter = new IpAddressConverter();
+        try (PreparedStatement select = connection.prepareStatement(
+                "SELECT DISTINCT ip FROM endpoint_hits WHERE ip >= ? AND ip < ?");
+             PreparedStatement update = connection.prepareStatement(
+                     "UPDATE endpoint_hits SET ip = ? WHERE ip = ?")) {
+            select.setBytes(1, TEXT_FROM);
+            select.setBytes(2, TEXT_TO);
+            select.setFetchSize(BATCH_SIZE);
+            int batched = 0;
+            try (ResultSet rows = select.executeQuery()) {
+                while (rows.next()) {
+                    byte[] stored = rows.getBytes(1);
+                    byte[] converted = converter.convertToDatabaseColumn(converter.convertToEntityAttribute(stored));
+                    if (Arrays.equals(stored, converted)) {
+                        continue;
+                    }
+                    update.setBytes(1, converted);
+                    update.setBytes(2, stored);
+                    update.addBatch();
+                    if (++batched % BATCH_SIZE == 0) {
+                        update.executeBatch();
+                    }
+                }
+            }
+            update.executeBatch();
+        }
+    }
+}
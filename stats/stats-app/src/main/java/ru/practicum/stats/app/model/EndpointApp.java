@@ -0,0 +1,21 @@
+package ru.practicum.stats.app.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "apps")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EndpointApp {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "apps_seq")
+    @SequenceGenerator(name = "apps_seq", sequenceName = "apps_seq", allocationSize = 50)
+    private Integer id;
+
+    @Column(nullable = false, unique = true)
+    private String name;
+}
@@ -15,15 +15,17 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class EndpointHit {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "endpoint_hits_seq")
+    @SequenceGenerator(name = "endpoint_hits_seq", sequenceName = "endpoint_hits_seq", allocationSize = 50)
     private Long id;
 
-    @Column(nullable = false)
-    private String app;
+    @Column(name = "app_id", nullable = false)
+    private Integer appId;
 
-    @Column(nullable = false)
-    private String uri;
+    @Column(name = "uri_id", nullable = false)
+    private Integer uriId;
 
+    @Convert(converter = IpAddressConverter.class)
     @Column(nullable = false)
     private String ip;
 
@@ -0,0 +1,37 @@
+package ru.practicum.stats.app.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "endpoint_hit_rollups")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EndpointHitRollup {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "endpoint_hit_rollups_seq")
+    @SequenceGenerator(name = "endpoint_hit_rollups_seq", sequenceName = "endpoint_hit_rollups_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "app_id", nullable = false)
+    private Integer appId;
+
+    @Column(name = "uri_id", nullable = false)
+    private Integer uriId;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Column(nullable = false)
+    private Long hits;
+
+    @ToString.Exclude
+    @Column(name = "ip_sketch", nullable = false)
+    private byte[] ipSketch;
+}
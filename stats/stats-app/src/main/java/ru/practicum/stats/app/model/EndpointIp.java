@@ -0,0 +1,4 @@
+package ru.practicum.stats.app.model;
+
+public record EndpointIp(Integer appId, Integer uriId, String ip) {
+}
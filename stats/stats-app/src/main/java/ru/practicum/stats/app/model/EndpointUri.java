@@ -0,0 +1,21 @@
+package ru.practicum.stats.app.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "uris")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EndpointUri {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "uris_seq")
+    @SequenceGenerator(name = "uris_seq", sequenceName = "uris_seq", allocationSize = 50)
+    private Integer id;
+
+    @Column(nullable = false, unique = true)
+    private String uri;
+}
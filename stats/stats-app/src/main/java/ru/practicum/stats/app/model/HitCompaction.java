@@ -0,0 +1,21 @@
+package ru.practicum.stats.app.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "endpoint_hit_compaction")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HitCompaction {
+    @Id
+    private Integer id;
+
+    @Column(name = "compacted_before", nullable = false)
+    private LocalDateTime compactedBefore;
+}
@@ -0,0 +1,4 @@
+package ru.practicum.stats.app.model;
+
+public record HitCount(Integer appId, Integer uriId, long hits) {
+}
@@ -0,0 +1,98 @@
+package ru.practicum.stats.app.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Хранит IP-адрес в двоичном виде: байт-признак и 4 или 16 байт адреса. IPv6 принимается в любой записи
+ * (сокращённой, в верхнем регистре, со встроенным IPv4) и читается обратно в виде
+ * {@link InetAddress#getHostAddress()}, поэтому разные записи одного адреса считаются одним посетителем.
+ * IPv4 принимается только в каноническом виде; остальные строки сохраняются как текст.
+ */
+@Converter
+public class IpAddressConverter implements AttributeConverter<String, byte[]> {
+    private static final byte TEXT = 0;
+    private static final byte IPV4 = 4;
+    private static final byte IPV6 = 6;
+
+    @Override
+    public byte[] convertToDatabaseColumn(String ip) {
+        if (ip == null) {
+            return null;
+        }
+        byte[] address = parseIpv4(ip);
+        if (address != null) {
+            return tagged(IPV4, address);
+        }
+        address = parseIpv6(ip);
+        if (address != null) {
+            return tagged(IPV6, address);
+        }
+        return tagged(TEXT, ip.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public String convertToEntityAttribute(byte[] value) {
+        if (value == null || value.length == 0) {
+            return null;
+        }
+        byte[] payload = Arrays.copyOfRange(value, 1, value.length);
+        if (value[0] == TEXT) {
+            return new String(payload, StandardCharsets.UTF_8);
+        }
+        try {
+            return InetAddress.getByAddress(payload).getHostAddress();
+        } catch (UnknownHostException e) {
+            throw new IllegalStateException("Некорректный IP-адрес в базе данных", e);
+        }
+    }
+
+    private static byte[] tagged(byte tag, byte[] payload) {
+        byte[] result = new byte[payload.length + 1];
+        result[0] = tag;
+        System.arraycopy(payload, 0, result, 1, payload.length);
+        return result;
+    }
+
+    private static byte[] parseIpv4(String ip) {
+        String[] parts = ip.split("\\.", -1);
+        if (parts.length != 4) {
+            return null;
+        }
+        byte[] address = new byte[4];
+        for (int i = 0; i < 4; i++) {
+            String part = parts[i];
+            if (part.isEmpty() || part.length() > 3 || (part.length() > 1 && part.charAt(0) == '0')
+                    || !part.chars().allMatch(Character::isDigit)) {
+                return null;
+            }
+            int octet = Integer.parseInt(part);
+            if (octet > 255) {
+                return null;
+            }
+            address[i] = (byte) octet;
+        }
+        return address;
+    }
+
+    private static byte[] parseIpv6(String ip) {
+        if (ip.indexOf(':') < 0 || !ip.chars().allMatch(c -> Character.digit(c, 16) >= 0 || c == ':' || c == '.')) {
+            return null;
+        }
+        try {
+            InetAddress address = InetAddress.getByName(ip);
+            if (address instanceof Inet6Address) {
+                return address.getAddress();
+            }
+        } catch (UnknownHostException e) {
+            return null;
+        }
+        return null;
+    }
+}
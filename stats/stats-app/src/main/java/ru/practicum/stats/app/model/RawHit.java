@@ -0,0 +1,6 @@
+package ru.practicum.stats.app.model;
+
+import java.time.LocalDateTime;
+
+public record RawHit(Long id, Integer appId, Integer uriId, String ip, LocalDateTime timestamp) {
+}
@@ -0,0 +1,12 @@
+package ru.practicum.stats.app.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import ru.practicum.stats.app.model.EndpointApp;
+
+import java.util.Optional;
+
+@Repository
+public interface EndpointAppRepository extends JpaRepository<EndpointApp, Integer> {
+    Optional<EndpointApp> findByName(String name);
+}
@@ -0,0 +1,38 @@
+package ru.practicum.stats.app.repository;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import ru.practicum.stats.app.model.EndpointHitRollup;
+import ru.practicum.stats.app.model.HitCount;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface EndpointHitRollupRepository extends JpaRepository<EndpointHitRollup, Long> {
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<EndpointHitRollup> findByAppIdAndUriIdAndBucketStart(Integer appId, Integer uriId,
+                                                                  LocalDateTime bucketStart);
+
+    @Query("SELECT new ru.practicum.stats.app.model.HitCount(r.appId, r.uriId, SUM(r.hits)) " +
+            "FROM EndpointHitRollup r " +
+            "WHERE r.bucketStart BETWEEN :start AND :end " +
+            "AND (:uriIds IS NULL OR r.uriId IN :uriIds) " +
+            "GROUP BY r.appId, r.uriId")
+    List<HitCount> sumHits(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end,
+                           @Param("uriIds") Collection<Integer> uriIds
+    );
+
+    @Query("SELECT r FROM EndpointHitRollup r " +
+            "WHERE r.bucketStart BETWEEN :start AND :end " +
+            "AND (:uriIds IS NULL OR r.uriId IN :uriIds)")
+    List<EndpointHitRollup> findRollups(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end,
+                                        @Param("uriIds") Collection<Integer> uriIds
+    );
+}
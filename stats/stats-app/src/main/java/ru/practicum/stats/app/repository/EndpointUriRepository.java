@@ -0,0 +1,16 @@
+package ru.practicum.stats.app.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import ru.practicum.stats.app.model.EndpointUri;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface EndpointUriRepository extends JpaRepository<EndpointUri, Integer> {
+    Optional<EndpointUri> findByUri(String uri);
+
+    List<EndpointUri> findAllByUriIn(Collection<String> uris);
+}
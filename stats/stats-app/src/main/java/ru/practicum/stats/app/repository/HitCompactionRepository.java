@@ -0,0 +1,9 @@
+package ru.practicum.stats.app.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import ru.practicum.stats.app.model.HitCompaction;
+
+@Repository
+public interface HitCompactionRepository extends JpaRepository<HitCompaction, Integer> {
+}
@@ -1,34 +1,69 @@
 package ru.practicum.stats.app.repository;
 
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import ru.practicum.stats.app.model.EndpointIp;
 import ru.practicum.stats.app.model.EndpointHit;
-import ru.practicum.stats.dto.ViewStats;
+import ru.practicum.stats.app.model.HitCount;
+import ru.practicum.stats.app.model.RawHit;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface StatsRepository extends JpaRepository<EndpointHit, Long> {
-    @Query("SELECT new ru.practicum.stats.dto.ViewStats(e.app, e.uri, COUNT(e)) " +
+    @Query("SELECT new ru.practicum.stats.app.model.HitCount(e.appId, e.uriId, COUNT(e)) " +
             "FROM EndpointHit e " +
             "WHERE e.timestamp BETWEEN :start AND :end " +
-            "AND (:uris IS NULL OR e.uri IN :uris) " +
-            "GROUP BY e.app, e.uri " +
+            "AND (:uriIds IS NULL OR e.uriId IN :uriIds) " +
+            "GROUP BY e.appId, e.uriId " +
             "ORDER BY COUNT(e) DESC")
-    List<ViewStats> findStats(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end,
-                              @Param("uris") List<String> uris
+    List<HitCount> findStats(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end,
+                             @Param("uriIds") Collection<Integer> uriIds
     );
 
-    @Query("SELECT new ru.practicum.stats.dto.ViewStats(e.app, e.uri, COUNT(DISTINCT e.ip)) " +
+    @Query("SELECT new ru.practicum.stats.app.model.HitCount(e.appId, e.uriId, COUNT(DISTINCT e.ip)) " +
             "FROM EndpointHit e " +
             "WHERE e.timestamp BETWEEN :start AND :end " +
-            "AND (:uris IS NULL OR e.uri IN :uris) " +
-            "GROUP BY e.app, e.uri " +
+            "AND (:uriIds IS NULL OR e.uriId IN :uriIds) " +
+            "GROUP BY e.appId, e.uriId " +
             "ORDER BY COUNT(DISTINCT e.ip) DESC")
-    List<ViewStats> findUniqueStats(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end,
-                                    @Param("uris") List<String> uris
+    List<HitCount> findUniqueStats(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end,
+                                   @Param("uriIds") Collection<Integer> uriIds
     );
+
+    @Query("SELECT DISTINCT new ru.practicum.stats.app.model.EndpointIp(e.appId, e.uriId, e.ip) " +
+            "FROM EndpointHit e " +
+            "WHERE e.timestamp >= :from AND e.timestamp < :to " +
+            "AND (:uriIds IS NULL OR e.uriId IN :uriIds)")
+    List<EndpointIp> findEndpointIps(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                                     @Param("uriIds") Collection<Integer> uriIds
+    );
+
+    @Query("SELECT MIN(e.timestamp) FROM EndpointHit e")
+    Optional<LocalDateTime> findOldestTimestamp();
+
+    /**
+     * Очередная пачка сырых хитов для компакции в порядке id. Строки блокируются до конца транзакции,
+     * чтобы параллельная компакция на другом экземпляре не свернула их повторно.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT new ru.practicum.stats.app.model.RawHit(e.id, e.appId, e.uriId, e.ip, e.timestamp) " +
+            "FROM EndpointHit e " +
+            "WHERE e.timestamp >= :from AND e.timestamp < :to AND e.id > :afterId " +
+            "ORDER BY e.id")
+    List<RawHit> findForCompaction(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                                   @Param("afterId") long afterId, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM EndpointHit e WHERE e.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,123 @@
+package ru.practicum.stats.app.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import ru.practicum.stats.app.model.EndpointApp;
+import ru.practicum.stats.app.model.EndpointUri;
+import ru.practicum.stats.app.repository.EndpointAppRepository;
+import ru.practicum.stats.app.repository.EndpointUriRepository;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EndpointDictionary {
+    private final EndpointAppRepository appRepository;
+    private final EndpointUriRepository uriRepository;
+
+    private final ConcurrentMap<String, Integer> appIds = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Integer, String> appNames = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Integer> uriIds = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Integer, String> uris = new ConcurrentHashMap<>();
+
+    /**
+     * Обращение к БД выполняется вне ConcurrentHashMap.computeIfAbsent: вставка внутри него держала бы блокировку
+     * сегмента карты на время запроса, а исключение или повторный вход оставили бы карту в неопределённом состоянии.
+     * Одновременная вставка того же имени разрешается уникальным индексом, и оба потока получают одну запись.
+     */
+    public Integer getAppId(String name) {
+        Integer id = appIds.get(name);
+        if (id != null) {
+            return id;
+        }
+        EndpointApp app = appRepository.findByName(name).orElseGet(() -> {
+            try {
+                return appRepository.save(new EndpointApp(null, name));
+            } catch (DataIntegrityViolationException e) {
+                return appRepository.findByName(name).orElseThrow(() -> e);
+            }
+        });
+        appNames.put(app.getId(), app.getName());
+        log.debug("Сервис {} получил идентификатор {}", name, app.getId());
+        Integer cached = appIds.putIfAbsent(name, app.getId());
+        return cached != null ? cached : app.getId();
+    }
+
+    public Integer getUriId(String uri) {
+        Integer id = uriIds.get(uri);
+        if (id != null) {
+            return id;
+        }
+        EndpointUri endpointUri = uriRepository.findByUri(uri).orElseGet(() -> {
+            try {
+                return uriRepository.save(new EndpointUri(null, uri));
+            } catch (DataIntegrityViolationException e) {
+                return uriRepository.findByUri(uri).orElseThrow(() -> e);
+            }
+        });
+        log.debug("URI {} получил идентификатор {}", uri, endpointUri.getId());
+        cacheUri(endpointUri);
+        return uriIds.get(uri);
+    }
+
+    public List<Integer> findUriIds(Collection<String> requested) {
+        List<Integer> result = new ArrayList<>();
+        List<String> missing = new ArrayList<>();
+        for (String uri : requested) {
+            Integer id = uriIds.get(uri);
+            if (id != null) {
+                result.add(id);
+            } else {
+                missing.add(uri);
+            }
+        }
+        if (!missing.isEmpty()) {
+            for (EndpointUri endpointUri : uriRepository.findAllByUriIn(missing)) {
+                cacheUri(endpointUri);
+                result.add(endpointUri.getId());
+            }
+        }
+        return result;
+    }
+
+    public String getAppName(Integer id) {
+        String name = appNames.get(id);
+        if (name == null) {
+            appRepository.findAll().forEach(app -> {
+                appNames.put(app.getId(), app.getName());
+                appIds.putIfAbsent(app.getName(), app.getId());
+            });
+            name = appNames.get(id);
+        }
+        return name;
+    }
+
+    public String getUri(Integer id) {
+        String uri = uris.get(id);
+        if (uri == null) {
+            uriRepository.findById(id).ifPresent(this::cacheUri);
+            uri = uris.get(id);
+        }
+        return uri;
+    }
+
+    public void preloadUris(Collection<Integer> ids) {
+        List<Integer> missing = ids.stream()
+                .filter(id -> !uris.containsKey(id))
+                .distinct()
+                .toList();
+        if (!missing.isEmpty()) {
+            uriRepository.findAllById(missing).forEach(this::cacheUri);
+        }
+    }
+
+    private void cacheUri(EndpointUri endpointUri) {
+        uris.put(endpointUri.getId(), endpointUri.getUri());
+        uriIds.putIfAbsent(endpointUri.getUri(), endpointUri.getId());
+    }
+}
@@ -0,0 +1,346 @@
+package ru.practicum.stats.app.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.stats.app.model.EndpointHit;
+import ru.practicum.stats.app.repository.StatsRepository;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Буфер отложенной записи хитов: POST /hit подтверждается после постановки в очередь (и в журнал, если он включён),
+ * а отдельный поток сохраняет накопленные хиты пачками в одной транзакции. Пачка, которая не сохранилась
+ * за stats.buffer.max-attempts попыток, делится пополам до отдельных хитов; хит, который не сохраняется и поодиночке,
+ * уходит в журнал отказов (лог ru.practicum.stats.app.hits.dead-letter и, при включённом журнале, сегменты
+ * в подкаталоге dead-letter), и запись продолжается. О каждом таком хите сообщается подписчику onDeadLetter,
+ * чтобы он не оставался в счётчиках, которые ведутся в памяти.
+ */
+@Slf4j
+@Component
+public class HitBuffer {
+    private static final Logger DEAD_LETTER = LoggerFactory.getLogger("ru.practicum.stats.app.hits.dead-letter");
+    private static final String DEAD_LETTER_DIR = "dead-letter";
+
+    private final StatsRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long flushLatencyMs;
+    private final long readTimeoutMs;
+    private final int maxAttempts;
+    private final long retryDelayMs;
+    private final boolean walEnabled;
+    private final Path walPath;
+    private final long walSegmentBytes;
+    private final boolean walFsync;
+    private final BlockingQueue<Pending> queue;
+
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Condition flushed = flushLock.newCondition();
+
+    private HitWal wal;
+    private HitWal deadLetterWal;
+    private Thread writer;
+    private volatile boolean running;
+    private long lastSeq;
+    private volatile long lastEnqueued;
+    private volatile long lastCommitted;
+    private volatile Consumer<EndpointHit> deadLetterListener = hit -> {
+    };
+
+    public HitBuffer(StatsRepository repository,
+                     TransactionTemplate transactionTemplate,
+                     @Value("${stats.buffer.enabled:false}") boolean enabled,
+                     @Value("${stats.buffer.capacity:10000}") int capacity,
+                     @Value("${stats.buffer.batch-size:500}") int batchSize,
+                     @Value("${stats.buffer.flush-latency-ms:50}") long flushLatencyMs,
+                     @Value("${stats.buffer.read-timeout-ms:2000}") long readTimeoutMs,
+                     @Value("${stats.buffer.max-attempts:5}") int maxAttempts,
+                     @Value("${stats.buffer.retry-delay-ms:1000}") long retryDelayMs,
+                     @Value("${stats.buffer.wal.enabled:false}") boolean walEnabled,
+                     @Value("${stats.buffer.wal.path:./data/hits-wal}") Path walPath,
+                     @Value("${stats.buffer.wal.segment-bytes:16777216}") long walSegmentBytes,
+                     @Value("${stats.buffer.wal.fsync:false}") boolean walFsync) {
+        this.repository = repository;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.flushLatencyMs = flushLatencyMs;
+        this.readTimeoutMs = readTimeoutMs;
+        this.maxAttempts = Math.max(maxAttempts, 1);
+        this.retryDelayMs = retryDelayMs;
+        this.walEnabled = walEnabled;
+        this.walPath = walPath;
+        this.walSegmentBytes = walSegmentBytes;
+        this.walFsync = walFsync;
+        this.queue = new ArrayBlockingQueue<>(Math.max(capacity, 1));
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        if (walEnabled) {
+            wal = new HitWal(walPath, walSegmentBytes, walFsync);
+            deadLetterWal = new HitWal(walPath.resolve(DEAD_LETTER_DIR), walSegmentBytes, walFsync);
+            replay();
+        }
+        running = true;
+        writer = new Thread(this::writeLoop, "hit-buffer-writer");
+        writer.setDaemon(true);
+        writer.start();
+        log.info("Буфер хитов запущен: пачка={}, задержка={} мс, журнал={}", batchSize, flushLatencyMs,
+                walEnabled ? walPath : "выключен");
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Подписывает на хиты, которые окончательно не удалось сохранить и которые ушли в журнал отказов.
+     */
+    public void onDeadLetter(Consumer<EndpointHit> listener) {
+        this.deadLetterListener = listener;
+    }
+
+    /**
+     * Ставит хит в очередь на запись. Возвращает false, если буфер выключен или переполнен —
+     * тогда хит нужно сохранить синхронно.
+     */
+    public boolean offer(EndpointHit hit) {
+        if (!running) {
+            return false;
+        }
+        appendLock.lock();
+        try {
+            if (queue.remainingCapacity() == 0) {
+                log.warn("Буфер хитов переполнен, хит будет сохранён синхронно");
+                return false;
+            }
+            long seq = ++lastSeq;
+            if (wal != null) {
+                wal.append(seq, hit);
+            }
+            queue.add(new Pending(seq, hit));
+            lastEnqueued = seq;
+            return true;
+        } catch (IOException e) {
+            lastSeq--;
+            log.error("Не удалось записать хит в журнал, хит будет сохранён синхронно", e);
+            return false;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Ждёт, пока в БД попадут все хиты, принятые до вызова, чтобы запрос статистики видел собственные записи.
+     */
+    public void awaitFlushed() {
+        long target = lastEnqueued;
+        if (!running || lastCommitted >= target) {
+            return;
+        }
+        long nanos = TimeUnit.MILLISECONDS.toNanos(readTimeoutMs);
+        flushLock.lock();
+        try {
+            while (lastCommitted < target && nanos > 0) {
+                nanos = flushed.awaitNanos(nanos);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            flushLock.unlock();
+        }
+        if (lastCommitted < target) {
+            log.warn("Буфер хитов не успел записать данные за {} мс, статистика может быть неполной", readTimeoutMs);
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException, IOException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        writer.interrupt();
+        writer.join(TimeUnit.SECONDS.toMillis(30));
+        if (wal != null) {
+            wal.close();
+            deadLetterWal.close();
+        }
+        log.info("Буфер хитов остановлен, в очереди осталось {}", queue.size());
+    }
+
+    private void writeLoop() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                collect(batch);
+            } catch (InterruptedException e) {
+                queue.drainTo(batch, batchSize - batch.size());
+            }
+            if (!batch.isEmpty()) {
+                flush(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void collect(List<Pending> batch) throws InterruptedException {
+        Pending first = queue.poll(flushLatencyMs, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushLatencyMs);
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remaining <= 0) {
+                return;
+            }
+            Pending next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void flush(List<Pending> batch) {
+        long seq = batch.get(batch.size() - 1).seq();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                save(batch);
+                break;
+            } catch (RuntimeException e) {
+                if (!running) {
+                    log.error("Буфер останавливается, пачка из {} хитов не сохранена{}", batch.size(),
+                            wal != null ? " и будет восстановлена из журнала" : "", e);
+                    return;
+                }
+                if (attempt >= maxAttempts) {
+                    log.error("Пачка из {} хитов не сохранена за {} попыток, сохраняем её по частям", batch.size(),
+                            attempt, e);
+                    bisect(batch, e);
+                    break;
+                }
+                log.error("Не удалось сохранить пачку из {} хитов, повтор через {} мс", batch.size(), retryDelayMs, e);
+                sleepBeforeRetry();
+            }
+        }
+        committed(seq);
+        log.debug("Сохранена пачка из {} хитов", batch.size());
+    }
+
+    /**
+     * Сохраняет половины непрошедшей пачки по отдельности, пока не останутся одиночные хиты, которые и уходят
+     * в журнал отказов.
+     */
+    private void bisect(List<Pending> batch, RuntimeException cause) {
+        if (batch.size() == 1) {
+            deadLetter(batch.get(0), cause);
+            return;
+        }
+        int middle = batch.size() / 2;
+        for (List<Pending> half : List.of(batch.subList(0, middle), batch.subList(middle, batch.size()))) {
+            try {
+                save(half);
+            } catch (RuntimeException e) {
+                bisect(half, e);
+            }
+        }
+    }
+
+    private void deadLetter(Pending pending, RuntimeException cause) {
+        EndpointHit hit = pending.hit();
+        DEAD_LETTER.error("seq={} appId={} uriId={} ip={} timestamp={}: {}", pending.seq(), hit.getAppId(),
+                hit.getUriId(), hit.getIp(), hit.getTimestamp(), cause.toString());
+        if (deadLetterWal != null) {
+            try {
+                deadLetterWal.append(pending.seq(), hit);
+            } catch (IOException e) {
+                log.error("Не удалось записать хит {} в журнал отказов", pending.seq(), e);
+            }
+        }
+        try {
+            deadLetterListener.accept(hit);
+        } catch (RuntimeException e) {
+            log.error("Подписчик журнала отказов не обработал хит {}", pending.seq(), e);
+        }
+    }
+
+    private void save(List<Pending> batch) {
+        List<EndpointHit> hits = batch.stream().map(Pending::hit).toList();
+        // id, выданные в откатившейся транзакции, не должны превращать повторную вставку в merge
+        hits.forEach(hit -> hit.setId(null));
+        transactionTemplate.executeWithoutResult(status -> repository.saveAll(hits));
+    }
+
+    private void committed(long seq) {
+        if (wal != null) {
+            appendLock.lock();
+            try {
+                wal.checkpoint(seq);
+            } catch (IOException e) {
+                log.error("Не удалось обновить checkpoint журнала хитов", e);
+            } finally {
+                appendLock.unlock();
+            }
+        }
+        flushLock.lock();
+        try {
+            lastCommitted = seq;
+            flushed.signalAll();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void replay() throws IOException {
+        List<HitWal.Entry> entries = wal.readUncommitted();
+        long last = wal.readCheckpoint();
+        for (int from = 0; from < entries.size(); from += batchSize) {
+            List<HitWal.Entry> chunk = entries.subList(from, Math.min(from + batchSize, entries.size()));
+            save(chunk.stream().map(entry -> new Pending(entry.seq(), entry.hit())).toList());
+            last = Math.max(last, chunk.get(chunk.size() - 1).seq());
+        }
+        wal.truncate(last);
+        lastSeq = last;
+        lastEnqueued = last;
+        lastCommitted = last;
+        if (!entries.isEmpty()) {
+            log.info("Из журнала восстановлено {} хитов", entries.size());
+        }
+    }
+
+    private void sleepBeforeRetry() {
+        try {
+            Thread.sleep(retryDelayMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private record Pending(long seq, EndpointHit hit) {
+    }
+}
@@ -0,0 +1,257 @@
+package ru.practicum.stats.app.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.stats.app.model.*;
+import ru.practicum.stats.app.repository.EndpointHitRollupRepository;
+import ru.practicum.stats.app.repository.HitCompactionRepository;
+import ru.practicum.stats.app.repository.StatsRepository;
+
+import java.time.*;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Slf4j
+@Service
+public class HitCompactionService {
+    private static final int STATE_ID = 1;
+
+    private final StatsRepository hitRepository;
+    private final EndpointHitRollupRepository rollupRepository;
+    private final HitCompactionRepository stateRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final Duration retention;
+    private final Duration bucket;
+    private final int batchSize;
+    private final Clock clock;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private volatile LocalDateTime watermark;
+    private volatile boolean watermarkLoaded;
+    private volatile LocalDateTime compactingFrom;
+
+    @Autowired
+    public HitCompactionService(StatsRepository hitRepository,
+                                EndpointHitRollupRepository rollupRepository,
+                                HitCompactionRepository stateRepository,
+                                TransactionTemplate transactionTemplate,
+                                @Value("${stats.compaction.enabled:true}") boolean enabled,
+                                @Value("${stats.compaction.retention-days:30}") int retentionDays,
+                                @Value("${stats.compaction.bucket-hours:24}") int bucketHours,
+                                @Value("${stats.compaction.batch-size:5000}") int batchSize) {
+        this(hitRepository, rollupRepository, stateRepository, transactionTemplate, enabled, retentionDays,
+                bucketHours, batchSize, Clock.systemDefaultZone());
+    }
+
+    HitCompactionService(StatsRepository hitRepository,
+                         EndpointHitRollupRepository rollupRepository,
+                         HitCompactionRepository stateRepository,
+                         TransactionTemplate transactionTemplate,
+                         boolean enabled, int retentionDays, int bucketHours, int batchSize, Clock clock) {
+        if (retentionDays <= 0 || bucketHours <= 0 || batchSize <= 0) {
+            throw new IllegalArgumentException("Параметры компакции статистики должны быть положительными");
+        }
+        this.hitRepository = hitRepository;
+        this.rollupRepository = rollupRepository;
+        this.stateRepository = stateRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.retention = Duration.ofDays(retentionDays);
+        this.bucket = Duration.ofHours(bucketHours);
+        this.batchSize = batchSize;
+        this.clock = clock;
+    }
+
+    /**
+     * Граница, раньше которой сырые хиты свёрнуты в агрегаты, или null, если компакции ещё не было.
+     */
+    public LocalDateTime getWatermark() {
+        if (!watermarkLoaded) {
+            watermark = stateRepository.findById(STATE_ID).map(HitCompaction::getCompactedBefore).orElse(null);
+            watermarkLoaded = true;
+        }
+        return watermark;
+    }
+
+    /**
+     * Начало периода, хиты которого ещё не учтены в агрегатах: граница компакции, а пока сворачивается бакет —
+     * его начало. Хиты ниже этого момента, записанные параллельно компакции, попадут в агрегаты следующим запуском.
+     */
+    public LocalDateTime getRawTailStart() {
+        LocalDateTime current = getWatermark();
+        LocalDateTime inProgress = compactingFrom;
+        return inProgress != null && current != null && inProgress.isBefore(current) ? inProgress : current;
+    }
+
+    public boolean isCompacted(LocalDateTime timestamp) {
+        LocalDateTime current = getWatermark();
+        return current != null && timestamp.isBefore(current);
+    }
+
+    public void foldLateHit(EndpointHit hit) {
+        try {
+            foldInTransaction(hit);
+        } catch (DataIntegrityViolationException e) {
+            foldInTransaction(hit);
+        }
+        log.info("Хит с временем {} старше границы компакции, добавлен в агрегат", hit.getTimestamp());
+    }
+
+    @Scheduled(cron = "${stats.compaction.cron:0 15 3 * * *}")
+    public void scheduledCompact() {
+        if (enabled) {
+            compact();
+        }
+    }
+
+    public CompactionReport compact() {
+        if (!running.compareAndSet(false, true)) {
+            log.warn("Компакция статистики уже выполняется");
+            return CompactionReport.EMPTY;
+        }
+        try {
+            return doCompact();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Сворачивает сырые хиты старше горизонта хранения. Граница компакции сдвигается за бакет до того, как его хиты
+     * начнут сворачиваться: новые хиты этого бакета сразу идут в агрегат, а getStats читает и агрегаты бакета,
+     * и ещё не свёрнутые сырые строки. Каждая пачка хитов читается с блокировкой, учитывается в агрегате
+     * и удаляется по тем же id в своей транзакции, поэтому блокировки держатся не дольше одной пачки,
+     * а удаляется ровно то, что посчитано. Хиты, оставшиеся ниже границы после сбоя или записанные параллельно
+     * в уже свёрнутый бакет, подбирает следующий запуск.
+     */
+    private CompactionReport doCompact() {
+        long startedAt = System.nanoTime();
+        LocalDateTime horizon = bucketStart(LocalDateTime.now(clock).minus(retention));
+        Optional<LocalDateTime> oldest = hitRepository.findOldestTimestamp();
+        LocalDateTime current = getWatermark();
+
+        long rolledUpHits = 0;
+        int rollups = 0;
+        if (current != null && oldest.isPresent() && oldest.get().isBefore(current)) {
+            RollupResult stragglers = rollUp(bucketStart(oldest.get()), current);
+            log.info("Свёрнуто хитов, записанных ниже границы компакции: {}", stragglers.hits());
+            rolledUpHits += stragglers.hits();
+            rollups += stragglers.rollups();
+        }
+
+        LocalDateTime from = current != null ? current : oldest.map(this::bucketStart).orElse(horizon);
+        for (LocalDateTime bucketFrom = from; bucketFrom.isBefore(horizon); bucketFrom = bucketFrom.plus(bucket)) {
+            RollupResult result = rollUpBucket(bucketFrom, bucketFrom.plus(bucket));
+            rolledUpHits += result.hits();
+            rollups += result.rollups();
+        }
+
+        CompactionReport report = new CompactionReport(rolledUpHits, rollups, rolledUpHits,
+                Duration.ofNanos(System.nanoTime() - startedAt));
+        log.info("Компакция статистики до {}: свёрнуто хитов {}, обновлено агрегатов {}, удалено строк {}, за {} мс",
+                getWatermark(), report.rolledUpHits(), report.rollups(), report.deletedRows(),
+                report.duration().toMillis());
+        return report;
+    }
+
+    /**
+     * Начало бакета агрегатов, в который попадает момент времени.
+     */
+    public LocalDateTime bucketStart(LocalDateTime timestamp) {
+        long seconds = bucket.toSeconds();
+        long epoch = timestamp.toEpochSecond(ZoneOffset.UTC);
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(epoch, seconds) * seconds, 0, ZoneOffset.UTC);
+    }
+
+    private RollupResult rollUpBucket(LocalDateTime from, LocalDateTime to) {
+        compactingFrom = from;
+        try {
+            LocalDateTime current = getWatermark();
+            if (current == null || to.isAfter(current)) {
+                transactionTemplate.executeWithoutResult(status ->
+                        stateRepository.save(new HitCompaction(STATE_ID, to)));
+                watermark = to;
+            }
+            return rollUp(from, to);
+        } finally {
+            compactingFrom = null;
+        }
+    }
+
+    private RollupResult rollUp(LocalDateTime from, LocalDateTime to) {
+        Set<RollupKey> touched = new HashSet<>();
+        long total = 0;
+        long afterId = 0;
+        BatchResult batch;
+        do {
+            long after = afterId;
+            batch = transactionTemplate.execute(status -> rollUpBatch(from, to, after));
+            touched.addAll(batch.rollups());
+            afterId = batch.lastId();
+            total += batch.hits();
+        } while (batch.hits() == batchSize);
+        return new RollupResult(total, touched.size());
+    }
+
+    private BatchResult rollUpBatch(LocalDateTime from, LocalDateTime to, long afterId) {
+        List<RawHit> batch = hitRepository.findForCompaction(from, to, afterId, PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) {
+            return new BatchResult(0, afterId, Set.of());
+        }
+        Map<RollupKey, Long> hits = new HashMap<>();
+        Map<RollupKey, IpSketch> sketches = new HashMap<>();
+        for (RawHit hit : batch) {
+            RollupKey key = new RollupKey(hit.appId(), hit.uriId(), bucketStart(hit.timestamp()));
+            hits.merge(key, 1L, Long::sum);
+            sketches.computeIfAbsent(key, k -> new IpSketch()).add(hit.ip());
+        }
+        for (Map.Entry<RollupKey, Long> entry : hits.entrySet()) {
+            RollupKey key = entry.getKey();
+            addToRollup(key.appId(), key.uriId(), key.bucketStart(), entry.getValue(), sketches.get(key));
+        }
+        hitRepository.deleteByIdIn(batch.stream().map(RawHit::id).toList());
+        return new BatchResult(batch.size(), batch.getLast().id(), hits.keySet());
+    }
+
+    private void foldInTransaction(EndpointHit hit) {
+        IpSketch sketch = new IpSketch();
+        sketch.add(hit.getIp());
+        transactionTemplate.executeWithoutResult(status ->
+                addToRollup(hit.getAppId(), hit.getUriId(), bucketStart(hit.getTimestamp()), 1, sketch));
+    }
+
+    private void addToRollup(Integer appId, Integer uriId, LocalDateTime bucketStart, long hits, IpSketch sketch) {
+        Optional<EndpointHitRollup> existing = rollupRepository.findByAppIdAndUriIdAndBucketStart(appId, uriId,
+                bucketStart);
+        if (existing.isPresent()) {
+            EndpointHitRollup rollup = existing.get();
+            IpSketch merged = IpSketch.fromBytes(rollup.getIpSketch());
+            merged.merge(sketch);
+            rollup.setHits(rollup.getHits() + hits);
+            rollup.setIpSketch(merged.toBytes());
+        } else {
+            rollupRepository.saveAndFlush(new EndpointHitRollup(null, appId, uriId, bucketStart, hits,
+                    sketch.toBytes()));
+        }
+    }
+
+    public record CompactionReport(long rolledUpHits, int rollups, long deletedRows, Duration duration) {
+        static final CompactionReport EMPTY = new CompactionReport(0, 0, 0, Duration.ZERO);
+    }
+
+    private record RollupResult(long hits, int rollups) {
+    }
+
+    private record BatchResult(int hits, long lastId, Set<RollupKey> rollups) {
+    }
+
+    private record RollupKey(Integer appId, Integer uriId, LocalDateTime bucketStart) {
+    }
+}
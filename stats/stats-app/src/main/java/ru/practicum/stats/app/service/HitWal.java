@@ -0,0 +1,167 @@
+package ru.practicum.stats.app.service;
+
+import lombok.extern.slf4j.Slf4j;
+import ru.practicum.stats.app.model.EndpointHit;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Сегментированный журнал принятых, но ещё не записанных в БД хитов.
+ * Каждая запись несёт порядковый номер; номер последней сохранённой в БД записи хранится в файле checkpoint.
+ */
+@Slf4j
+final class HitWal implements Closeable {
+    private static final String SEGMENT_PREFIX = "hits-";
+    private static final String SEGMENT_SUFFIX = ".wal";
+    private static final String CHECKPOINT = "checkpoint";
+    private static final int MAX_IP_BYTES = 1024;
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final boolean fsync;
+    private final Deque<Segment> closedSegments = new ArrayDeque<>();
+
+    private FileChannel channel;
+    private Segment current;
+
+    HitWal(Path directory, long segmentBytes, boolean fsync) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.segmentBytes = segmentBytes;
+        this.fsync = fsync;
+    }
+
+    long readCheckpoint() throws IOException {
+        Path checkpoint = directory.resolve(CHECKPOINT);
+        return Files.exists(checkpoint) ? Long.parseLong(Files.readString(checkpoint).trim()) : 0;
+    }
+
+    /**
+     * Возвращает записи с номером больше checkpoint. Оборванная при сбое последняя запись отбрасывается.
+     */
+    List<Entry> readUncommitted() throws IOException {
+        long checkpoint = readCheckpoint();
+        List<Entry> entries = new ArrayList<>();
+        for (Path segment : segments()) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(segment)))) {
+                while (true) {
+                    Entry entry = read(in);
+                    if (entry.seq() > checkpoint) {
+                        entries.add(entry);
+                    }
+                }
+            } catch (EOFException e) {
+                log.debug("Сегмент журнала {} прочитан", segment.getFileName());
+            }
+        }
+        return entries;
+    }
+
+    void append(long seq, EndpointHit hit) throws IOException {
+        if (current == null || channel.size() >= segmentBytes) {
+            rotate(seq);
+        }
+        byte[] ip = hit.getIp().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES + 3 * Integer.BYTES + ip.length + Long.BYTES
+                + Integer.BYTES);
+        buffer.putLong(seq)
+                .putInt(hit.getAppId())
+                .putInt(hit.getUriId())
+                .putInt(ip.length)
+                .put(ip)
+                .putLong(hit.getTimestamp().toEpochSecond(ZoneOffset.UTC))
+                .putInt(hit.getTimestamp().getNano())
+                .flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        if (fsync) {
+            channel.force(false);
+        }
+        current.lastSeq = seq;
+    }
+
+    /**
+     * Фиксирует, что все записи до seq включительно сохранены в БД, и удаляет полностью сохранённые сегменты.
+     */
+    void checkpoint(long seq) throws IOException {
+        Path tmp = directory.resolve(CHECKPOINT + ".tmp");
+        Files.writeString(tmp, Long.toString(seq));
+        Files.move(tmp, directory.resolve(CHECKPOINT), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        while (!closedSegments.isEmpty() && closedSegments.peekFirst().lastSeq <= seq) {
+            Files.deleteIfExists(closedSegments.pollFirst().path);
+        }
+    }
+
+    /**
+     * Удаляет все сегменты, оставшиеся от прошлого запуска, после того как их записи сохранены в БД.
+     */
+    void truncate(long seq) throws IOException {
+        checkpoint(seq);
+        for (Path segment : segments()) {
+            if (current == null || !segment.equals(current.path)) {
+                Files.deleteIfExists(segment);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    private void rotate(long seq) throws IOException {
+        if (current != null) {
+            channel.close();
+            closedSegments.addLast(current);
+        }
+        Path path = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, seq, SEGMENT_SUFFIX));
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        current = new Segment(path);
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static Entry read(DataInputStream in) throws IOException {
+        long seq = in.readLong();
+        int appId = in.readInt();
+        int uriId = in.readInt();
+        int ipLength = in.readInt();
+        if (ipLength < 0 || ipLength > MAX_IP_BYTES) {
+            throw new EOFException("Повреждённая запись журнала " + seq);
+        }
+        byte[] ip = new byte[ipLength];
+        in.readFully(ip);
+        LocalDateTime timestamp = LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+        return new Entry(seq, new EndpointHit(null, appId, uriId, new String(ip, StandardCharsets.UTF_8), timestamp));
+    }
+
+    record Entry(long seq, EndpointHit hit) {
+    }
+
+    private static final class Segment {
+        private final Path path;
+        private long lastSeq;
+
+        private Segment(Path path) {
+            this.path = path;
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package ru.practicum.stats.app.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.stats.dto.ViewStats;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+@Slf4j
+@Component
+public class HotStatsEngine {
+    private static final long BUCKET_SECONDS = 60;
+    private static final long MAX_CLOCK_SKEW_BUCKETS = 1;
+
+    private final boolean enabled;
+    private final int buckets;
+    private final Clock clock;
+    private final long coverageStartBucket;
+    private final ConcurrentMap<Endpoint, Series> series = new ConcurrentHashMap<>();
+
+    @Autowired
+    public HotStatsEngine(@Value("${stats.hot.enabled:true}") boolean enabled,
+                          @Value("${stats.hot.window-hours:24}") int windowHours) {
+        this(enabled, windowHours, Clock.systemDefaultZone());
+    }
+
+    HotStatsEngine(boolean enabled, int windowHours, Clock clock) {
+        this.enabled = enabled && windowHours > 0;
+        this.buckets = (int) (Duration.ofHours(Math.max(windowHours, 0)).toSeconds() / BUCKET_SECONDS);
+        this.clock = clock;
+        this.coverageStartBucket = bucketOf(LocalDateTime.now(clock)) + 1;
+        log.info("Горячее хранилище статистики: включено={}, окно={} ч.", this.enabled, windowHours);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void record(String app, String uri, LocalDateTime timestamp) {
+        if (!enabled) {
+            return;
+        }
+        long bucket = bucketOf(timestamp);
+        long current = bucketOf(LocalDateTime.now(clock));
+        if (bucket < coverageStartBucket || bucket <= current - buckets) {
+            return;
+        }
+        if (bucket > current + MAX_CLOCK_SKEW_BUCKETS) {
+            log.warn("Хит с временем {} из будущего не учитывается в горячем хранилище", timestamp);
+            return;
+        }
+        Endpoint endpoint = new Endpoint(app, uri);
+        while (true) {
+            Series counters = series.computeIfAbsent(endpoint,
+                    key -> new Series(buckets + (int) MAX_CLOCK_SKEW_BUCKETS + 1));
+            if (counters.increment(bucket)) {
+                return;
+            }
+            series.remove(endpoint, counters);
+        }
+    }
+
+    /**
+     * Отменяет ранее учтённый хит, который так и не попал в БД.
+     */
+    public void forget(String app, String uri, LocalDateTime timestamp) {
+        if (!enabled) {
+            return;
+        }
+        Series counters = series.get(new Endpoint(app, uri));
+        if (counters != null) {
+            counters.decrement(bucketOf(timestamp));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${stats.hot.eviction-ms:60000}")
+    public void scheduledEvict() {
+        if (enabled) {
+            evictIdle();
+        }
+    }
+
+    /**
+     * Удаляет ряды, в которых нет ни одной корзины внутри окна: иначе каждый когда-либо встреченный URI
+     * навсегда занимал бы кольцо на всё окно.
+     */
+    public int evictIdle() {
+        long oldest = bucketOf(LocalDateTime.now(clock)) - buckets + 1;
+        int evicted = 0;
+        for (Map.Entry<Endpoint, Series> entry : series.entrySet()) {
+            if (entry.getValue().retireIfIdle(oldest) && series.remove(entry.getKey(), entry.getValue())) {
+                evicted++;
+            }
+        }
+        if (evicted > 0) {
+            log.debug("Из горячего хранилища удалено неактивных рядов: {}, осталось: {}", evicted, series.size());
+        }
+        return evicted;
+    }
+
+    int size() {
+        return series.size();
+    }
+
+    public Coverage coverage(LocalDateTime start, LocalDateTime end) {
+        if (!enabled || start.isAfter(end)) {
+            return Coverage.NONE;
+        }
+        long current = bucketOf(LocalDateTime.now(clock));
+        long oldest = Math.max(coverageStartBucket, current - buckets + 1);
+        long newest = current + MAX_CLOCK_SKEW_BUCKETS + 1;
+        long from = Math.max(ceilBucket(start), oldest);
+        boolean throughEnd = !end.isBefore(startOf(newest));
+        // Хиты приходят с точностью до секунды, поэтому end включает всю свою секунду
+        long to = throughEnd ? newest : bucketOf(end.plusSeconds(1));
+        if (from >= to) {
+            return Coverage.NONE;
+        }
+        return new Coverage(startOf(from), startOf(to), throughEnd);
+    }
+
+    public List<ViewStats> getStats(Coverage coverage, Collection<String> uris) {
+        if (coverage.isEmpty()) {
+            return List.of();
+        }
+        long from = bucketOf(coverage.from());
+        long to = bucketOf(coverage.to());
+        Set<String> filter = uris == null ? null : new HashSet<>(uris);
+        List<ViewStats> result = new ArrayList<>();
+        series.forEach((endpoint, counters) -> {
+            if (filter != null && !filter.contains(endpoint.uri())) {
+                return;
+            }
+            long hits = counters.sum(from, to);
+            if (hits > 0) {
+                result.add(new ViewStats(endpoint.app(), endpoint.uri(), hits));
+            }
+        });
+        return result;
+    }
+
+    private static long bucketOf(LocalDateTime timestamp) {
+        return Math.floorDiv(timestamp.toEpochSecond(ZoneOffset.UTC), BUCKET_SECONDS);
+    }
+
+    private static long ceilBucket(LocalDateTime timestamp) {
+        LocalDateTime truncated = timestamp.truncatedTo(ChronoUnit.MINUTES);
+        return truncated.equals(timestamp) ? bucketOf(timestamp) : bucketOf(timestamp) + 1;
+    }
+
+    private static LocalDateTime startOf(long bucket) {
+        return LocalDateTime.ofEpochSecond(bucket * BUCKET_SECONDS, 0, ZoneOffset.UTC);
+    }
+
+    public record Coverage(LocalDateTime from, LocalDateTime to, boolean throughEnd) {
+        static final Coverage NONE = new Coverage(null, null, false);
+
+        public boolean isEmpty() {
+            return from == null;
+        }
+    }
+
+    private record Endpoint(String app, String uri) {
+    }
+
+    /**
+     * Кольцо минутных корзин. Номер корзины и счётчик хранятся в одном long (номер в старших 32 битах),
+     * поэтому сброс слота под новую корзину и инкремент выполняются одним CAS и не теряют хиты друг друга.
+     * Выведенный из работы ряд больше не принимает хиты: record заменяет его новым.
+     */
+    private static final class Series {
+        private static final int COUNT_BITS = 32;
+        private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+        private static final long RETIRED = Long.MIN_VALUE;
+
+        private final AtomicLongArray slots;
+        private final AtomicLong newest = new AtomicLong(RETIRED + 1);
+
+        Series(int size) {
+            slots = new AtomicLongArray(size);
+        }
+
+        boolean retireIfIdle(long oldest) {
+            long last = newest.get();
+            return last != RETIRED && last < oldest && newest.compareAndSet(last, RETIRED);
+        }
+
+        boolean increment(long bucket) {
+            long last;
+            do {
+                last = newest.get();
+                if (last == RETIRED) {
+                    return false;
+                }
+            } while (last < bucket && !newest.compareAndSet(last, bucket));
+            int slot = (int) Math.floorMod(bucket, (long) slots.length());
+            while (true) {
+                long current = slots.get(slot);
+                long epoch = current >>> COUNT_BITS;
+                long next;
+                if (epoch == bucket) {
+                    if ((current & COUNT_MASK) == COUNT_MASK) {
+                        return true;
+                    }
+                    next = current + 1;
+                } else if (epoch < bucket) {
+                    next = (bucket << COUNT_BITS) | 1;
+                } else {
+                    return true;
+                }
+                if (slots.compareAndSet(slot, current, next)) {
+                    return true;
+                }
+            }
+        }
+
+        void decrement(long bucket) {
+            int slot = (int) Math.floorMod(bucket, (long) slots.length());
+            while (true) {
+                long current = slots.get(slot);
+                if (current >>> COUNT_BITS != bucket || (current & COUNT_MASK) == 0) {
+                    return;
+                }
+                if (slots.compareAndSet(slot, current, current - 1)) {
+                    return;
+                }
+            }
+        }
+
+        long sum(long from, long to) {
+            long total = 0;
+            for (long bucket = Math.max(from, to - slots.length()); bucket < to; bucket++) {
+                long value = slots.get((int) Math.floorMod(bucket, (long) slots.length()));
+                if (value >>> COUNT_BITS == bucket) {
+                    total += value & COUNT_MASK;
+                }
+            }
+            return total;
+        }
+    }
+}
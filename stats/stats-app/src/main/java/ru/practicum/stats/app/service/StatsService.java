@@ -1,5 +1,6 @@
 package ru.practicum.stats.app.service;
 
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
@@ -7,13 +8,19 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 import ru.practicum.stats.app.mapper.EndpointHitMapper;
 import ru.practicum.stats.app.model.EndpointHit;
+import ru.practicum.stats.app.model.EndpointHitRollup;
+import ru.practicum.stats.app.model.EndpointIp;
+import ru.practicum.stats.app.model.HitCount;
+import ru.practicum.stats.app.repository.EndpointHitRollupRepository;
 import ru.practicum.stats.app.repository.StatsRepository;
 import ru.practicum.stats.dto.EndpointHitDto;
 import ru.practicum.stats.dto.ViewStats;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -21,13 +28,80 @@ import java.util.List;
 public class StatsService {
     private final StatsRepository repository;
     private final EndpointHitMapper mapper;
+    private final HotStatsEngine hotStats;
+    private final EndpointDictionary dictionary;
+    private final EndpointHitRollupRepository rollupRepository;
+    private final HitCompactionService compaction;
+    private final HitBuffer hitBuffer;
+    private final TopStatsEngine topStats;
 
     private static final DateTimeFormatter FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
+    @PostConstruct
+    void subscribeToDeadLetters() {
+        hitBuffer.onDeadLetter(this::forget);
+    }
+
     public void save(EndpointHitDto dto) {
+        EndpointHit entity = accept(dto);
+        if (entity != null) {
+            repository.save(entity);
+            record(dto, entity);
+        }
+        log.info("Сохранён хит: {}", dto);
+    }
+
+    /**
+     * Сохраняет пачку хитов: то, что не ушло в агрегаты или буфер, пишется одним saveAll в одной транзакции.
+     */
+    public void saveAll(List<EndpointHitDto> dtos) {
+        List<EndpointHitDto> directDtos = new ArrayList<>();
+        List<EndpointHit> direct = new ArrayList<>();
+        for (EndpointHitDto dto : dtos) {
+            EndpointHit entity = accept(dto);
+            if (entity != null) {
+                directDtos.add(dto);
+                direct.add(entity);
+            }
+        }
+        if (!direct.isEmpty()) {
+            repository.saveAll(direct);
+            for (int i = 0; i < direct.size(); i++) {
+                record(directDtos.get(i), direct.get(i));
+            }
+        }
+        log.info("Сохранено хитов пачкой: {}, из них напрямую в БД: {}", dtos.size(), direct.size());
+    }
+
+    /**
+     * Возвращает сущность, если её нужно записать в БД самому вызывающему: поздние хиты сворачиваются в агрегаты,
+     * остальные по возможности уходят в буфер. В горячих структурах хит учитывается, только когда принят:
+     * свёрнут, поставлен в буфер или сохранён вызывающим; хит, который буфер в итоге отправил в журнал отказов,
+     * вычитается обратно.
+     */
+    private EndpointHit accept(EndpointHitDto dto) {
         EndpointHit entity = mapper.toEntity(dto);
-        repository.save(entity);
-        log.info("Сохранён хит: {}", entity);
+        entity.setAppId(dictionary.getAppId(dto.getApp()));
+        entity.setUriId(dictionary.getUriId(dto.getUri()));
+        if (compaction.isCompacted(entity.getTimestamp())) {
+            compaction.foldLateHit(entity);
+        } else if (!hitBuffer.offer(entity)) {
+            return entity;
+        }
+        record(dto, entity);
+        return null;
+    }
+
+    private void record(EndpointHitDto dto, EndpointHit entity) {
+        hotStats.record(dto.getApp(), dto.getUri(), entity.getTimestamp());
+        topStats.record(dto.getApp(), dto.getUri(), entity.getTimestamp());
+    }
+
+    private void forget(EndpointHit hit) {
+        String app = dictionary.getAppName(hit.getAppId());
+        String uri = dictionary.getUri(hit.getUriId());
+        hotStats.forget(app, uri, hit.getTimestamp());
+        topStats.forget(app, uri, hit.getTimestamp());
     }
 
     public List<ViewStats> getStats(String start, String end, List<String> uris, boolean unique) {
@@ -44,11 +118,138 @@ public class StatsService {
         log.info("Запрос статистики с параметрами: start={}, end={}, uris={}, unique={}",
                 start, end, uris, unique);
 
-        List<ViewStats> stats = unique
-                ? repository.findUniqueStats(st, en, uris)
-                : repository.findStats(st, en, uris);
+        List<Integer> uriIds = uris == null ? null : dictionary.findUriIds(uris);
+        if (uriIds != null && uriIds.isEmpty()) {
+            log.info("Ни один из запрошенных URI ещё не встречался");
+            return new ArrayList<>();
+        }
+
+        LocalDateTime watermark = compaction.getWatermark();
+        List<ViewStats> stats;
+        if (watermark != null && st.isBefore(watermark)) {
+            stats = getCompactedStats(st, en, uris, uriIds, unique, watermark);
+        } else {
+            stats = unique
+                    ? toViewStats(findUniqueStats(st, en, uriIds))
+                    : getHitStats(st, en, uris, uriIds);
+        }
 
         log.info("Результат запроса статистики: {} записей", stats.size());
         return stats;
     }
+
+    public List<ViewStats> getTopStats(String start, String end, int limit, String prefix) {
+        LocalDateTime st = LocalDateTime.parse(start, FORMAT);
+        LocalDateTime en = LocalDateTime.parse(end, FORMAT);
+
+        if (st.isAfter(en)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Параметр start должен быть раньше end");
+        }
+        if (limit <= 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Параметр limit должен быть положительным");
+        }
+
+        log.info("Запрос top-{} статистики: start={}, end={}, prefix={}", limit, start, end, prefix);
+
+        if (topStats.covers(st, en)) {
+            return topStats.getTop(st, en, limit, prefix);
+        }
+        return getStats(start, end, null, false).stream()
+                .filter(stat -> prefix == null || stat.getUri().startsWith(prefix))
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    private List<ViewStats> getHitStats(LocalDateTime start, LocalDateTime end, List<String> uris,
+                                        List<Integer> uriIds) {
+        HotStatsEngine.Coverage coverage = hotStats.coverage(start, end);
+        if (coverage.isEmpty()) {
+            return toViewStats(findStats(start, end, uriIds));
+        }
+
+        Map<List<String>, ViewStats> merged = new HashMap<>();
+        if (start.isBefore(coverage.from())) {
+            merge(merged, toViewStats(findStats(start, coverage.from().minus(1, ChronoUnit.MICROS), uriIds)));
+        }
+        merge(merged, hotStats.getStats(coverage, uris));
+        if (!coverage.throughEnd() && !end.isBefore(coverage.to())) {
+            merge(merged, toViewStats(findStats(coverage.to(), end, uriIds)));
+        }
+
+        log.debug("Статистика за {} - {} получена из горячего хранилища", coverage.from(), coverage.to());
+        List<ViewStats> stats = new ArrayList<>(merged.values());
+        stats.sort(Comparator.comparingLong(ViewStats::getHits).reversed());
+        return stats;
+    }
+
+    /**
+     * Агрегаты хранятся целыми бакетами (stats.compaction.bucket-hours), а сырых строк свёрнутого бакета уже нет,
+     * поэтому бакет, в который попадает start, учитывается целиком: точность периода ниже границы компакции —
+     * один бакет. Сырые хиты читаются за весь период: ниже границы остаются ещё не свёрнутые пачки текущего бакета
+     * и хиты, записанные во время компакции, их ещё нет в агрегатах. Для уникальных просмотров объединяются скетчи
+     * агрегатов, а сырые IP читаются только с начала несвёрнутого хвоста: хиты, записанные ниже него во время
+     * компакции, до следующего запуска в оценку не входят.
+     */
+    private List<ViewStats> getCompactedStats(LocalDateTime start, LocalDateTime end, List<String> uris,
+                                              List<Integer> uriIds, boolean unique, LocalDateTime watermark) {
+        LocalDateTime rollupStart = compaction.bucketStart(start);
+        LocalDateTime rollupEnd = end.isBefore(watermark) ? end : watermark.minus(1, ChronoUnit.MICROS);
+        List<ViewStats> stats;
+        if (unique) {
+            Map<List<Integer>, IpSketch> sketches = new HashMap<>();
+            for (EndpointHitRollup rollup : rollupRepository.findRollups(rollupStart, rollupEnd, uriIds)) {
+                sketches.computeIfAbsent(List.of(rollup.getAppId(), rollup.getUriId()), key -> new IpSketch())
+                        .merge(IpSketch.fromBytes(rollup.getIpSketch()));
+            }
+            LocalDateTime tailStart = compaction.getRawTailStart();
+            LocalDateTime rawStart = start.isAfter(tailStart) ? start : tailStart;
+            hitBuffer.awaitFlushed();
+            for (EndpointIp endpointIp : repository.findEndpointIps(rawStart, end.plus(1, ChronoUnit.MICROS),
+                    uriIds)) {
+                sketches.computeIfAbsent(List.of(endpointIp.appId(), endpointIp.uriId()), key -> new IpSketch())
+                        .add(endpointIp.ip());
+            }
+            stats = toViewStats(sketches.entrySet().stream()
+                    .map(entry -> new HitCount(entry.getKey().get(0), entry.getKey().get(1),
+                            entry.getValue().estimate()))
+                    .toList());
+        } else {
+            Map<List<String>, ViewStats> merged = new HashMap<>();
+            merge(merged, toViewStats(rollupRepository.sumHits(rollupStart, rollupEnd, uriIds)));
+            merge(merged, getHitStats(start, end, uris, uriIds));
+            stats = new ArrayList<>(merged.values());
+        }
+        log.debug("Статистика до {} получена из агрегатов", watermark);
+        stats.sort(Comparator.comparingLong(ViewStats::getHits).reversed());
+        return stats;
+    }
+
+    /**
+     * Сырые хиты читаются только после записи буфера, чтобы запрос видел собственные записи. Запрос, который
+     * целиком отвечает горячее хранилище, буфер не ждёт: хиты учитываются в нём при приёме.
+     */
+    private List<HitCount> findStats(LocalDateTime start, LocalDateTime end, List<Integer> uriIds) {
+        hitBuffer.awaitFlushed();
+        return repository.findStats(start, end, uriIds);
+    }
+
+    private List<HitCount> findUniqueStats(LocalDateTime start, LocalDateTime end, List<Integer> uriIds) {
+        hitBuffer.awaitFlushed();
+        return repository.findUniqueStats(start, end, uriIds);
+    }
+
+    private List<ViewStats> toViewStats(List<HitCount> counts) {
+        dictionary.preloadUris(counts.stream().map(HitCount::uriId).toList());
+        return counts.stream()
+                .map(count -> new ViewStats(dictionary.getAppName(count.appId()), dictionary.getUri(count.uriId()),
+                        count.hits()))
+                .collect(Collectors.toList());
+    }
+
+    private void merge(Map<List<String>, ViewStats> target, List<ViewStats> stats) {
+        for (ViewStats stat : stats) {
+            target.merge(List.of(stat.getApp(), stat.getUri()), stat,
+                    (left, right) -> new ViewStats(left.getApp(), left.getUri(), left.getHits() + right.getHits()));
+        }
+    }
 }
@@ -0,0 +1,194 @@
+package ru.practicum.stats.app.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.stats.dto.ViewStats;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Приближённый top-N самых посещаемых эндпоинтов за последние часы.
+ * Для каждого часа хранится сводка Space-Saving фиксированного размера, поэтому память и время запроса
+ * не зависят от числа эндпоинтов. Границы запроса округляются до целых часов.
+ */
+@Slf4j
+@Component
+public class TopStatsEngine {
+    private static final long BUCKET_SECONDS = 3600;
+    private static final long MAX_CLOCK_SKEW_BUCKETS = 1;
+
+    private final boolean enabled;
+    private final int windowHours;
+    private final int capacity;
+    private final Clock clock;
+    private final long coverageStartBucket;
+    private final AtomicReferenceArray<Summary> summaries;
+
+    @Autowired
+    public TopStatsEngine(@Value("${stats.top.enabled:true}") boolean enabled,
+                          @Value("${stats.top.window-hours:24}") int windowHours,
+                          @Value("${stats.top.capacity:1000}") int capacity) {
+        this(enabled, windowHours, capacity, Clock.systemDefaultZone());
+    }
+
+    TopStatsEngine(boolean enabled, int windowHours, int capacity, Clock clock) {
+        this.enabled = enabled && windowHours > 0 && capacity > 0;
+        this.windowHours = Math.max(windowHours, 0);
+        this.capacity = capacity;
+        this.clock = clock;
+        this.coverageStartBucket = bucketOf(LocalDateTime.now(clock)) + 1;
+        this.summaries = new AtomicReferenceArray<>(this.windowHours + (int) MAX_CLOCK_SKEW_BUCKETS + 1);
+        log.info("Top-N статистика: включено={}, окно={} ч., размер сводки={}", this.enabled, windowHours, capacity);
+    }
+
+    public void record(String app, String uri, LocalDateTime timestamp) {
+        if (!enabled) {
+            return;
+        }
+        long bucket = bucketOf(timestamp);
+        long current = bucketOf(LocalDateTime.now(clock));
+        if (bucket < coverageStartBucket || bucket <= current - windowHours
+                || bucket > current + MAX_CLOCK_SKEW_BUCKETS) {
+            return;
+        }
+        summaryFor(bucket).offer(new Endpoint(app, uri));
+    }
+
+    /**
+     * Отменяет ранее учтённый хит, который так и не попал в БД. Если эндпоинт уже вытеснен из сводки, ничего
+     * не меняется: его счётчик и так приближённый.
+     */
+    public void forget(String app, String uri, LocalDateTime timestamp) {
+        if (!enabled) {
+            return;
+        }
+        long bucket = bucketOf(timestamp);
+        Summary summary = summaries.get(slotOf(bucket));
+        if (summary != null && summary.bucket == bucket) {
+            summary.withdraw(new Endpoint(app, uri));
+        }
+    }
+
+    public boolean covers(LocalDateTime start, LocalDateTime end) {
+        if (!enabled || start.isAfter(end)) {
+            return false;
+        }
+        long from = bucketOf(start);
+        long current = bucketOf(LocalDateTime.now(clock));
+        return from >= coverageStartBucket && from > current - windowHours;
+    }
+
+    public List<ViewStats> getTop(LocalDateTime start, LocalDateTime end, int limit, String prefix) {
+        long from = bucketOf(start);
+        long to = Math.min(bucketOf(end), bucketOf(LocalDateTime.now(clock)) + MAX_CLOCK_SKEW_BUCKETS);
+        Map<Endpoint, Long> merged = new HashMap<>();
+        for (long bucket = from; bucket <= to; bucket++) {
+            Summary summary = summaries.get(slotOf(bucket));
+            if (summary != null && summary.bucket == bucket) {
+                summary.addTo(merged, prefix);
+            }
+        }
+        return merged.entrySet().stream()
+                .sorted(Map.Entry.<Endpoint, Long>comparingByValue().reversed())
+                .limit(limit)
+                .map(entry -> new ViewStats(entry.getKey().app(), entry.getKey().uri(), entry.getValue()))
+                .toList();
+    }
+
+    private Summary summaryFor(long bucket) {
+        int slot = slotOf(bucket);
+        Summary summary = summaries.get(slot);
+        if (summary == null || summary.bucket != bucket) {
+            synchronized (this) {
+                summary = summaries.get(slot);
+                if (summary == null || summary.bucket < bucket) {
+                    summary = new Summary(bucket, capacity);
+                    summaries.set(slot, summary);
+                }
+            }
+        }
+        return summary;
+    }
+
+    private int slotOf(long bucket) {
+        return (int) Math.floorMod(bucket, (long) summaries.length());
+    }
+
+    private static long bucketOf(LocalDateTime timestamp) {
+        return Math.floorDiv(timestamp.toEpochSecond(ZoneOffset.UTC), BUCKET_SECONDS);
+    }
+
+    private record Endpoint(String app, String uri) {
+    }
+
+    private static final class Counter {
+        private long count;
+
+        private Counter(long count) {
+            this.count = count;
+        }
+    }
+
+    private static final class Summary {
+        private final long bucket;
+        private final int capacity;
+        private final Map<Endpoint, Counter> counters = new HashMap<>();
+        private final TreeMap<Long, Set<Endpoint>> byCount = new TreeMap<>();
+
+        private Summary(long bucket, int capacity) {
+            this.bucket = bucket;
+            this.capacity = capacity;
+        }
+
+        synchronized void offer(Endpoint endpoint) {
+            Counter counter = counters.get(endpoint);
+            if (counter != null) {
+                detach(endpoint, counter.count);
+            } else if (counters.size() < capacity) {
+                counter = new Counter(0);
+                counters.put(endpoint, counter);
+            } else {
+                Map.Entry<Long, Set<Endpoint>> min = byCount.firstEntry();
+                Endpoint evicted = min.getValue().iterator().next();
+                detach(evicted, min.getKey());
+                counters.remove(evicted);
+                counter = new Counter(min.getKey());
+                counters.put(endpoint, counter);
+            }
+            counter.count++;
+            byCount.computeIfAbsent(counter.count, key -> new LinkedHashSet<>()).add(endpoint);
+        }
+
+        synchronized void withdraw(Endpoint endpoint) {
+            Counter counter = counters.get(endpoint);
+            if (counter == null || counter.count == 0) {
+                return;
+            }
+            detach(endpoint, counter.count);
+            counter.count--;
+            byCount.computeIfAbsent(counter.count, key -> new LinkedHashSet<>()).add(endpoint);
+        }
+
+        synchronized void addTo(Map<Endpoint, Long> target, String prefix) {
+            counters.forEach((endpoint, counter) -> {
+                if (prefix == null || endpoint.uri().startsWith(prefix)) {
+                    target.merge(endpoint, counter.count, Long::sum);
+                }
+            });
+        }
+
+        private void detach(Endpoint endpoint, long count) {
+            Set<Endpoint> endpoints = byCount.get(count);
+            endpoints.remove(endpoint);
+            if (endpoints.isEmpty()) {
+                byCount.remove(count);
+            }
+        }
+    }
+}
@@ -0,0 +1,4 @@
+CREATE SEQUENCE IF NOT EXISTS apps_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS uris_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS endpoint_hits_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS endpoint_hit_rollups_seq START WITH 1 INCREMENT BY 50;
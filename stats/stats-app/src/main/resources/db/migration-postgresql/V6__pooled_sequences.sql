@@ -0,0 +1,15 @@
+ALTER TABLE apps ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS apps_seq INCREMENT BY 50;
+SELECT setval('apps_seq', COALESCE((SELECT MAX(id) FROM apps), 0) + 1, false);
+
+ALTER TABLE uris ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS uris_seq INCREMENT BY 50;
+SELECT setval('uris_seq', COALESCE((SELECT MAX(id) FROM uris), 0) + 1, false);
+
+ALTER TABLE endpoint_hits ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS endpoint_hits_seq INCREMENT BY 50;
+SELECT setval('endpoint_hits_seq', COALESCE((SELECT MAX(id) FROM endpoint_hits), 0) + 1, false);
+
+ALTER TABLE endpoint_hit_rollups ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS endpoint_hit_rollups_seq INCREMENT BY 50;
+SELECT setval('endpoint_hit_rollups_seq', COALESCE((SELECT MAX(id) FROM endpoint_hit_rollups), 0) + 1, false);
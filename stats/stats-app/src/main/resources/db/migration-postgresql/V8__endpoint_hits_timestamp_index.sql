@@ -0,0 +1 @@
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_endpoint_hits_timestamp ON endpoint_hits (timestamp);
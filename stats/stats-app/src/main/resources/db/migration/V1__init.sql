@@ -1,5 +1,3 @@
-DROP TABLE IF EXISTS endpoint_hits;
-
 CREATE TABLE IF NOT EXISTS endpoint_hits (
     id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
     app VARCHAR(255) NOT NULL,
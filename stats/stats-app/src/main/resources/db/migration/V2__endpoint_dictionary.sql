@@ -0,0 +1,28 @@
+CREATE TABLE IF NOT EXISTS apps (
+    id   INTEGER GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    name VARCHAR(255)                             NOT NULL UNIQUE,
+    CONSTRAINT pk_app PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS uris (
+    id  INTEGER GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    uri VARCHAR(255)                             NOT NULL UNIQUE,
+    CONSTRAINT pk_uri PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS endpoint_hit_ip_map (
+    ip     VARCHAR(255) NOT NULL,
+    ip_bin BYTEA        NOT NULL,
+    CONSTRAINT pk_endpoint_hit_ip_map PRIMARY KEY (ip)
+);
+
+ALTER TABLE endpoint_hits ADD COLUMN app_id INTEGER;
+ALTER TABLE endpoint_hits ADD COLUMN uri_id INTEGER;
+ALTER TABLE endpoint_hits ADD COLUMN ip_bin BYTEA;
+
+INSERT INTO apps (name) SELECT DISTINCT app FROM endpoint_hits;
+INSERT INTO uris (uri) SELECT DISTINCT uri FROM endpoint_hits;
+
+UPDATE endpoint_hits SET
+    app_id = (SELECT a.id FROM apps a WHERE a.name = endpoint_hits.app),
+    uri_id = (SELECT u.id FROM uris u WHERE u.uri = endpoint_hits.uri);
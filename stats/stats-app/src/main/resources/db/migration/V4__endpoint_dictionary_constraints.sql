@@ -0,0 +1,14 @@
+DROP TABLE endpoint_hit_ip_map;
+
+ALTER TABLE endpoint_hits DROP COLUMN app;
+ALTER TABLE endpoint_hits DROP COLUMN uri;
+ALTER TABLE endpoint_hits DROP COLUMN ip;
+ALTER TABLE endpoint_hits RENAME COLUMN ip_bin TO ip;
+
+ALTER TABLE endpoint_hits ALTER COLUMN app_id SET NOT NULL;
+ALTER TABLE endpoint_hits ALTER COLUMN uri_id SET NOT NULL;
+ALTER TABLE endpoint_hits ALTER COLUMN ip SET NOT NULL;
+
+ALTER TABLE endpoint_hits ADD CONSTRAINT pk_endpoint_hit PRIMARY KEY (id);
+ALTER TABLE endpoint_hits ADD CONSTRAINT fk_hit_app FOREIGN KEY (app_id) REFERENCES apps (id);
+ALTER TABLE endpoint_hits ADD CONSTRAINT fk_hit_uri FOREIGN KEY (uri_id) REFERENCES uris (id);
@@ -0,0 +1,18 @@
+CREATE TABLE IF NOT EXISTS endpoint_hit_rollups (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    app_id INTEGER NOT NULL,
+    uri_id INTEGER NOT NULL,
+    bucket_start TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    hits BIGINT NOT NULL,
+    ip_sketch BYTEA NOT NULL,
+    CONSTRAINT pk_endpoint_hit_rollup PRIMARY KEY (id),
+    CONSTRAINT uq_rollup_endpoint_bucket UNIQUE (app_id, uri_id, bucket_start),
+    CONSTRAINT fk_rollup_app FOREIGN KEY (app_id) REFERENCES apps (id),
+    CONSTRAINT fk_rollup_uri FOREIGN KEY (uri_id) REFERENCES uris (id)
+);
+
+CREATE TABLE IF NOT EXISTS endpoint_hit_compaction (
+    id INTEGER NOT NULL,
+    compacted_before TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    CONSTRAINT pk_endpoint_hit_compaction PRIMARY KEY (id)
+);
@@ -73,4 +73,22 @@ class StatsControllerTest {
                 .andExpect(jsonPath("$[0].uri").value("/x"))
                 .andExpect(jsonPath("$[0].hits").value(10));
     }
+
+    @Test
+    @DisplayName("GET /stats/top должен вернуть top-N статистики с лимитом по умолчанию")
+    void getTopStats_ShouldReturnTopList() throws Exception {
+        String start = "2025-05-11 12:00:00";
+        String end = "2025-05-11 13:00:00";
+
+        Mockito.when(service.getTopStats(start, end, 10, "/events/"))
+                .thenReturn(List.of(new ViewStats("main", "/events/1", 7L)));
+
+        mvc.perform(get("/stats/top")
+                        .param("start", start)
+                        .param("end", end)
+                        .param("prefix", "/events/"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].uri").value("/events/1"));
+    }
 }
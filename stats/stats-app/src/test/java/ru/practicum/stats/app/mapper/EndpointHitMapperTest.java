@@ -22,8 +22,8 @@ class EndpointHitMapperTest {
         EndpointHit entity = mapper.toEntity(dto);
 
         assertThat(entity).isNotNull();
-        assertThat(entity.getApp()).isEqualTo("my-app");
-        assertThat(entity.getUri()).isEqualTo("/test");
+        assertThat(entity.getAppId()).isNull();
+        assertThat(entity.getUriId()).isNull();
         assertThat(entity.getIp()).isEqualTo("127.0.0.1");
         assertThat(entity.getTimestamp()).isEqualTo(timestamp);
         assertThat(entity.getId()).isNull();
@@ -1,11 +1,15 @@
 package ru.practicum.stats.app.repository;
 
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import ru.practicum.stats.app.model.EndpointApp;
 import ru.practicum.stats.app.model.EndpointHit;
-import ru.practicum.stats.dto.ViewStats;
+import ru.practicum.stats.app.model.EndpointUri;
+import ru.practicum.stats.app.model.HitCount;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -17,54 +21,107 @@ class StatsRepositoryTest {
     @Autowired
     private StatsRepository repository;
 
+    @Autowired
+    private EndpointAppRepository appRepository;
+
+    @Autowired
+    private EndpointUriRepository uriRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Integer appId;
+
+    @BeforeEach
+    void setUp() {
+        appId = appRepository.save(new EndpointApp(null, "app")).getId();
+    }
+
     @Test
     @DisplayName("EndpointHit должен корректно сохраняться и читаться из базы")
     void shouldPersistAndReadEndpointHitCorrectly() {
         LocalDateTime ts = LocalDateTime.now().minusMinutes(10);
-        EndpointHit hit = new EndpointHit(null, "service", "/test", "8.8.8.8", ts);
+        Integer uriId = uri("/test");
+        EndpointHit hit = new EndpointHit(null, appId, uriId, "8.8.8.8", ts);
 
         EndpointHit saved = repository.save(hit);
         EndpointHit found = repository.findById(saved.getId()).orElseThrow();
 
         assertThat(found.getId()).isNotNull();
-        assertThat(found.getApp()).isEqualTo("service");
-        assertThat(found.getUri()).isEqualTo("/test");
+        assertThat(found.getAppId()).isEqualTo(appId);
+        assertThat(found.getUriId()).isEqualTo(uriId);
         assertThat(found.getIp()).isEqualTo("8.8.8.8");
         assertThat(found.getTimestamp()).isEqualTo(ts);
     }
 
+    @Test
+    @DisplayName("IPv6 и произвольные строки должны сохраняться без искажений")
+    void shouldPersistIpv6AndTextAddresses() {
+        Integer uriId = uri("/ip");
+        Long ipv6 = repository.save(new EndpointHit(null, appId, uriId, "2001:db8:0:0:0:0:0:1",
+                LocalDateTime.now())).getId();
+        Long text = repository.save(new EndpointHit(null, appId, uriId, "unknown", LocalDateTime.now())).getId();
+
+        assertThat(repository.findById(ipv6).orElseThrow().getIp()).isEqualTo("2001:db8:0:0:0:0:0:1");
+        assertThat(repository.findById(text).orElseThrow().getIp()).isEqualTo("unknown");
+    }
+
+    @Test
+    @DisplayName("Разные записи одного IPv6-адреса должны считаться одним уникальным посетителем")
+    void shouldStoreCompressedIpv6AsBinary() {
+        LocalDateTime now = LocalDateTime.now();
+        Integer uriId = uri("/ipv6");
+        Long compressed = repository.save(new EndpointHit(null, appId, uriId, "2001:db8::1", now.minusHours(1)))
+                .getId();
+        repository.save(new EndpointHit(null, appId, uriId, "2001:DB8:0:0:0:0:0:1", now.minusHours(2)));
+        repository.save(new EndpointHit(null, appId, uriId, "::1", now.minusHours(3)));
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(repository.findById(compressed).orElseThrow().getIp()).isEqualTo("2001:db8:0:0:0:0:0:1");
+        assertThat(repository.findUniqueStats(now.minusDays(1), now, List.of(uriId)).get(0).hits())
+                .isEqualTo(2);
+    }
+
     @Test
     @DisplayName("findStats должен вернуть данные о просмотрах с сортировкой")
     void shouldReturnStatsSortedByCount() {
         LocalDateTime now = LocalDateTime.now();
-        repository.save(new EndpointHit(null, "app", "/a", "1.1.1.1", now.minusDays(1)));
-        repository.save(new EndpointHit(null, "app", "/a", "1.1.1.2", now.minusDays(1)));
-        repository.save(new EndpointHit(null, "app", "/b", "1.1.1.3", now.minusDays(1)));
+        Integer a = uri("/a");
+        Integer b = uri("/b");
+        repository.save(new EndpointHit(null, appId, a, "1.1.1.1", now.minusDays(1)));
+        repository.save(new EndpointHit(null, appId, a, "1.1.1.2", now.minusDays(1)));
+        repository.save(new EndpointHit(null, appId, b, "1.1.1.3", now.minusDays(1)));
 
-        List<ViewStats> stats = repository.findStats(
+        List<HitCount> stats = repository.findStats(
                 now.minusDays(2), now.plusDays(1), null
         );
 
         assertThat(stats).hasSize(2);
-        assertThat(stats.get(0).getUri()).isEqualTo("/a");
-        assertThat(stats.get(0).getHits()).isEqualTo(2);
-        assertThat(stats.get(1).getHits()).isEqualTo(1);
+        assertThat(stats.get(0).uriId()).isEqualTo(a);
+        assertThat(stats.get(0).hits()).isEqualTo(2);
+        assertThat(stats.get(1).hits()).isEqualTo(1);
     }
 
     @Test
     @DisplayName("findUniqueStats должен учитывать уникальные IP")
     void shouldReturnUniqueStatsSortedByIpCount() {
         LocalDateTime now = LocalDateTime.now();
-        repository.save(new EndpointHit(null, "app", "/x", "1.1.1.1", now.minusHours(1)));
-        repository.save(new EndpointHit(null, "app", "/x", "1.1.1.1", now.minusHours(2)));
-        repository.save(new EndpointHit(null, "app", "/x", "1.1.1.2", now.minusHours(3)));
+        Integer x = uri("/x");
+        repository.save(new EndpointHit(null, appId, x, "1.1.1.1", now.minusHours(1)));
+        repository.save(new EndpointHit(null, appId, x, "1.1.1.1", now.minusHours(2)));
+        repository.save(new EndpointHit(null, appId, x, "1.1.1.2", now.minusHours(3)));
 
-        List<ViewStats> stats = repository.findUniqueStats(
-                now.minusDays(1), now.plusDays(1), null
+        List<HitCount> stats = repository.findUniqueStats(
+                now.minusDays(1), now.plusDays(1), List.of(x)
         );
 
         assertThat(stats).hasSize(1);
-        assertThat(stats.get(0).getUri()).isEqualTo("/x");
-        assertThat(stats.get(0).getHits()).isEqualTo(2);
+        assertThat(stats.get(0).uriId()).isEqualTo(x);
+        assertThat(stats.get(0).hits()).isEqualTo(2);
+    }
+
+    private Integer uri(String uri) {
+        return uriRepository.save(new EndpointUri(null, uri)).getId();
     }
 }
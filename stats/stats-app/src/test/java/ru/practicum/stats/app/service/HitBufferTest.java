@@ -0,0 +1,144 @@
+package ru.practicum.stats.app.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.stats.app.model.EndpointHit;
+import ru.practicum.stats.app.repository.StatsRepository;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class HitBufferTest {
+    @TempDir
+    private Path walDir;
+
+    private StatsRepository repository;
+    private TransactionTemplate transactionTemplate;
+    private final List<EndpointHit> saved = Collections.synchronizedList(new ArrayList<>());
+    private final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+    private HitBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(StatsRepository.class);
+        when(repository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<EndpointHit> hits = invocation.getArgument(0);
+            batchSizes.add(hits.size());
+            saved.addAll(hits);
+            return hits;
+        });
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (buffer != null) {
+            buffer.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("Хиты из буфера должны сохраняться пачками, а awaitFlushed — дожидаться их записи")
+    void offer_ShouldFlushInBatches() throws Exception {
+        buffer = buffer(true, 100, false);
+        buffer.start();
+
+        for (int i = 0; i < 25; i++) {
+            assertThat(buffer.offer(hit("10.0.0." + i))).isTrue();
+        }
+        buffer.awaitFlushed();
+
+        assertThat(saved).hasSize(25);
+        assertThat(batchSizes).allMatch(size -> size <= 10);
+        assertThat(batchSizes.size()).isLessThan(25);
+    }
+
+    @Test
+    @DisplayName("Выключенный буфер не должен принимать хиты")
+    void offer_ShouldReturnFalse_WhenDisabled() throws Exception {
+        buffer = buffer(false, 100, false);
+        buffer.start();
+
+        assertThat(buffer.offer(hit("1.1.1.1"))).isFalse();
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    @DisplayName("Хиты из журнала, не попавшие в БД до сбоя, должны сохраняться при следующем запуске")
+    void start_ShouldReplayUncommittedWalEntries() throws Exception {
+        try (HitWal wal = new HitWal(walDir, 1024, false)) {
+            wal.append(1, hit("1.1.1.1"));
+            wal.append(2, hit("2.2.2.2"));
+            wal.append(3, hit("2001:db8:0:0:0:0:0:1"));
+            wal.checkpoint(1);
+        }
+
+        buffer = buffer(true, 100, true);
+        buffer.start();
+
+        assertThat(saved).extracting(EndpointHit::getIp).containsExactly("2.2.2.2", "2001:db8:0:0:0:0:0:1");
+        assertThat(new HitWal(walDir, 1024, false).readUncommitted()).isEmpty();
+
+        assertThat(buffer.offer(hit("3.3.3.3"))).isTrue();
+        buffer.awaitFlushed();
+        assertThat(new HitWal(walDir, 1024, false).readCheckpoint()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("Пачка, которая не сохраняется, должна делиться пополам, а неисправный хит — уходить в журнал отказов")
+    void offer_ShouldBisectFailingBatchAndDeadLetterBadHit() throws Exception {
+        when(repository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<EndpointHit> hits = invocation.getArgument(0);
+            if (hits.stream().anyMatch(hit -> hit.getIp().equals("bad"))) {
+                throw new DataIntegrityViolationException("bad ip");
+            }
+            saved.addAll(hits);
+            return hits;
+        });
+        buffer = buffer(true, 100, true);
+        List<EndpointHit> deadLettered = new CopyOnWriteArrayList<>();
+        buffer.onDeadLetter(deadLettered::add);
+        buffer.start();
+
+        for (String ip : List.of("1.1.1.1", "2.2.2.2", "bad", "4.4.4.4", "5.5.5.5")) {
+            assertThat(buffer.offer(hit(ip))).isTrue();
+        }
+        buffer.awaitFlushed();
+        assertThat(buffer.offer(hit("6.6.6.6"))).isTrue();
+        buffer.awaitFlushed();
+
+        assertThat(saved).extracting(EndpointHit::getIp)
+                .containsExactlyInAnyOrder("1.1.1.1", "2.2.2.2", "4.4.4.4", "5.5.5.5", "6.6.6.6");
+        assertThat(new HitWal(walDir.resolve("dead-letter"), 1024, false).readUncommitted())
+                .extracting(entry -> entry.hit().getIp()).containsExactly("bad");
+        assertThat(deadLettered).extracting(EndpointHit::getIp).containsExactly("bad");
+        assertThat(new HitWal(walDir, 1024, false).readCheckpoint()).isEqualTo(6);
+    }
+
+    private HitBuffer buffer(boolean enabled, int capacity, boolean wal) {
+        return new HitBuffer(repository, transactionTemplate, enabled, capacity, 10, 20, 5_000, 3, 1, wal, walDir,
+                1024, false);
+    }
+
+    private static EndpointHit hit(String ip) {
+        return new EndpointHit(null, 1, 1, ip, LocalDateTime.of(2025, 5, 11, 10, 0, 0));
+    }
+}
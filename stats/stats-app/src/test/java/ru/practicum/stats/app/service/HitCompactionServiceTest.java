@@ -0,0 +1,219 @@
+package ru.practicum.stats.app.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.stats.app.model.EndpointApp;
+import ru.practicum.stats.app.model.EndpointHit;
+import ru.practicum.stats.app.model.EndpointHitRollup;
+import ru.practicum.stats.app.model.EndpointUri;
+import ru.practicum.stats.app.model.HitCompaction;
+import ru.practicum.stats.app.repository.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+class HitCompactionServiceTest {
+    @Autowired
+    private StatsRepository hitRepository;
+
+    @Autowired
+    private EndpointHitRollupRepository rollupRepository;
+
+    @Autowired
+    private HitCompactionRepository stateRepository;
+
+    @Autowired
+    private EndpointAppRepository appRepository;
+
+    @Autowired
+    private EndpointUriRepository uriRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private MutableClock clock;
+    private HitCompactionService compaction;
+    private Integer appId;
+    private Integer uriId;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(LocalDateTime.of(2025, 6, 15, 3, 15));
+        compaction = new HitCompactionService(hitRepository, rollupRepository, stateRepository,
+                new TransactionTemplate(transactionManager), true, 30, 24, 2, clock);
+        appId = appRepository.save(new EndpointApp(null, "app")).getId();
+        uriId = uriRepository.save(new EndpointUri(null, "/events/1")).getId();
+    }
+
+    @Test
+    @DisplayName("Компакция должна свернуть старые хиты в суточные агрегаты и удалить сырые строки пачками")
+    void compact_ShouldRollUpOldHitsAndDeleteRawRows() {
+        LocalDateTime oldDay = LocalDateTime.of(2025, 5, 1, 0, 0);
+        hit("1.1.1.1", oldDay.plusHours(1));
+        hit("1.1.1.1", oldDay.plusHours(2));
+        hit("2.2.2.2", oldDay.plusHours(23));
+        hit("3.3.3.3", oldDay.plusDays(1));
+        hit("4.4.4.4", LocalDateTime.of(2025, 6, 14, 12, 0));
+
+        HitCompactionService.CompactionReport report = compaction.compact();
+
+        assertThat(report.rolledUpHits()).isEqualTo(4);
+        assertThat(report.rollups()).isEqualTo(2);
+        assertThat(report.deletedRows()).isEqualTo(4);
+        assertThat(hitRepository.findAll()).extracting(EndpointHit::getIp).containsExactly("4.4.4.4");
+        assertThat(compaction.getWatermark()).isEqualTo(LocalDateTime.of(2025, 5, 16, 0, 0));
+
+        EndpointHitRollup first = rollupRepository.findByAppIdAndUriIdAndBucketStart(appId, uriId, oldDay)
+                .orElseThrow();
+        assertThat(first.getHits()).isEqualTo(3);
+        assertThat(IpSketch.fromBytes(first.getIpSketch()).estimate()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Повторная компакция без новых данных не должна ничего менять")
+    void compact_ShouldBeIdempotent() {
+        hit("1.1.1.1", LocalDateTime.of(2025, 5, 1, 10, 0));
+        compaction.compact();
+
+        HitCompactionService.CompactionReport report = compaction.compact();
+
+        assertThat(report.rolledUpHits()).isZero();
+        assertThat(report.deletedRows()).isZero();
+        assertThat(rollupRepository.findAll()).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Хит, записанный ниже границы во время компакции, должен свернуться следующим запуском")
+    void compact_ShouldFoldStragglerBelowWatermark() {
+        LocalDateTime day = LocalDateTime.of(2025, 5, 1, 0, 0);
+        hit("1.1.1.1", day.plusHours(1));
+        compaction.compact();
+        LocalDateTime watermark = compaction.getWatermark();
+        hit("2.2.2.2", day.plusHours(3));
+
+        HitCompactionService.CompactionReport report = compaction.compact();
+
+        EndpointHitRollup rollup = rollupRepository.findByAppIdAndUriIdAndBucketStart(appId, uriId, day)
+                .orElseThrow();
+        assertThat(report.rolledUpHits()).isEqualTo(1);
+        assertThat(rollup.getHits()).isEqualTo(2);
+        assertThat(IpSketch.fromBytes(rollup.getIpSketch()).estimate()).isEqualTo(2);
+        assertThat(hitRepository.findAll()).isEmpty();
+        assertThat(compaction.getWatermark()).isEqualTo(watermark);
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @DisplayName("Свёрнутые пачки должны фиксироваться сразу, а после сбоя остаток бакета подбирается следующим запуском")
+    void compact_ShouldCommitEachBatch() {
+        LocalDateTime day = LocalDateTime.of(2025, 5, 1, 0, 0);
+        IntStream.range(0, 5).forEach(i -> hit("10.0.0." + i, day.plusHours(i)));
+        AtomicInteger transactions = new AtomicInteger();
+        HitCompactionService failing = new HitCompactionService(hitRepository, rollupRepository, stateRepository,
+                new TransactionTemplate(transactionManager) {
+                    @Override
+                    public <T> T execute(TransactionCallback<T> action) {
+                        if (transactions.incrementAndGet() == 3) {
+                            throw new IllegalStateException("сбой второй пачки");
+                        }
+                        return super.execute(action);
+                    }
+                }, true, 30, 24, 2, clock);
+
+        try {
+            assertThatThrownBy(failing::compact).isInstanceOf(IllegalStateException.class);
+
+            assertThat(rollupRepository.findAll()).extracting(EndpointHitRollup::getHits).containsExactly(2L);
+            assertThat(hitRepository.findAll()).hasSize(3);
+            assertThat(stateRepository.findById(1)).get().extracting(HitCompaction::getCompactedBefore)
+                    .isEqualTo(day.plusDays(1));
+
+            compaction.compact();
+
+            assertThat(rollupRepository.findAll()).extracting(EndpointHitRollup::getHits).containsExactly(5L);
+            assertThat(hitRepository.findAll()).isEmpty();
+        } finally {
+            rollupRepository.deleteAll();
+            hitRepository.deleteAll();
+            stateRepository.deleteAll();
+            uriRepository.deleteAll();
+            appRepository.deleteAll();
+        }
+    }
+
+    @Test
+    @DisplayName("Пока бакет сворачивается, несвёрнутый хвост должен начинаться с начала этого бакета")
+    void getRawTailStart_ShouldCoverBucketInProgress() {
+        LocalDateTime day = LocalDateTime.of(2025, 5, 1, 0, 0);
+        hit("1.1.1.1", day.plusHours(1));
+        AtomicReference<HitCompactionService> service = new AtomicReference<>();
+        List<LocalDateTime> tails = new ArrayList<>();
+        service.set(new HitCompactionService(hitRepository, rollupRepository, stateRepository,
+                new TransactionTemplate(transactionManager) {
+                    @Override
+                    public <T> T execute(TransactionCallback<T> action) {
+                        T result = super.execute(action);
+                        tails.add(service.get().getRawTailStart());
+                        return result;
+                    }
+                }, true, 30, 24, 2, clock));
+
+        service.get().compact();
+
+        assertThat(tails).contains(day);
+        assertThat(service.get().getRawTailStart()).isEqualTo(service.get().getWatermark())
+                .isEqualTo(LocalDateTime.of(2025, 5, 16, 0, 0));
+    }
+
+    @Test
+    @DisplayName("Опоздавший хит старше границы компакции должен добавляться в существующий агрегат")
+    void foldLateHit_ShouldUpdateExistingRollup() {
+        LocalDateTime day = LocalDateTime.of(2025, 5, 1, 0, 0);
+        hit("1.1.1.1", day.plusHours(1));
+        compaction.compact();
+
+        compaction.foldLateHit(new EndpointHit(null, appId, uriId, "9.9.9.9", day.plusHours(5)));
+
+        EndpointHitRollup rollup = rollupRepository.findByAppIdAndUriIdAndBucketStart(appId, uriId, day)
+                .orElseThrow();
+        assertThat(compaction.isCompacted(day.plusHours(5))).isTrue();
+        assertThat(rollup.getHits()).isEqualTo(2);
+        assertThat(IpSketch.fromBytes(rollup.getIpSketch()).estimate()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Оценка уникальных IP должна переживать сериализацию и укладываться в погрешность")
+    void ipSketch_ShouldEstimateWithinError() {
+        IpSketch sketch = new IpSketch();
+        IntStream.range(0, 50_000).forEach(i -> sketch.add("10." + (i >> 16) + "." + ((i >> 8) & 255) + "." + (i & 255)));
+        IpSketch small = new IpSketch();
+        List.of("1.1.1.1", "2.2.2.2", "1.1.1.1").forEach(small::add);
+
+        IpSketch restored = IpSketch.fromBytes(sketch.toBytes());
+        restored.merge(IpSketch.fromBytes(small.toBytes()));
+
+        assertThat(small.toBytes()).hasSizeLessThan(10);
+        assertThat(restored.estimate()).isBetween(49_000L, 51_000L);
+        assertThat(IpSketch.fromBytes(small.toBytes()).estimate()).isEqualTo(2);
+    }
+
+    private void hit(String ip, LocalDateTime timestamp) {
+        hitRepository.save(new EndpointHit(null, appId, uriId, ip, timestamp));
+    }
+}
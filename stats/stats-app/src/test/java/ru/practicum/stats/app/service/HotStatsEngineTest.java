@@ -0,0 +1,177 @@
+package ru.practicum.stats.app.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.practicum.stats.dto.ViewStats;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class HotStatsEngineTest {
+    private static final DateTimeFormatter FMT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final MutableClock clock = new MutableClock(time("2025-05-11 10:00:00"));
+    private final HotStatsEngine engine = new HotStatsEngine(true, 1, clock);
+
+    @Test
+    @DisplayName("Хиты должны суммироваться по минутным корзинам с фильтрацией по URI")
+    void shouldCountHitsPerUri() {
+        clock.set(time("2025-05-11 10:30:00"));
+        engine.record("app", "/a", time("2025-05-11 10:10:05"));
+        engine.record("app", "/a", time("2025-05-11 10:20:05"));
+        engine.record("app", "/b", time("2025-05-11 10:20:10"));
+
+        HotStatsEngine.Coverage coverage = engine.coverage(time("2025-05-11 10:01:00"), time("2025-05-11 10:29:59"));
+        List<ViewStats> stats = engine.getStats(coverage, List.of("/a"));
+
+        assertThat(coverage.from()).isEqualTo(time("2025-05-11 10:01:00"));
+        assertThat(coverage.to()).isEqualTo(time("2025-05-11 10:30:00"));
+        assertThat(stats).hasSize(1);
+        assertThat(stats.getFirst().getHits()).isEqualTo(2L);
+    }
+
+    @Test
+    @DisplayName("Корзины старше окна должны вытесняться и не попадать в покрытие")
+    void shouldEvictBucketsOutsideWindow() {
+        clock.set(time("2025-05-11 10:30:00"));
+        engine.record("app", "/a", time("2025-05-11 10:10:00"));
+
+        clock.set(time("2025-05-11 11:30:00"));
+        engine.record("app", "/a", time("2025-05-11 11:10:00"));
+
+        HotStatsEngine.Coverage coverage = engine.coverage(time("2025-05-11 10:00:00"), time("2025-05-11 12:00:00"));
+
+        assertThat(coverage.from()).isEqualTo(time("2025-05-11 10:31:00"));
+        assertThat(coverage.throughEnd()).isTrue();
+        assertThat(engine.getStats(coverage, null)).extracting(ViewStats::getHits).containsExactly(1L);
+    }
+
+    @Test
+    @DisplayName("Отменённый хит должен вычитаться из своей корзины")
+    void shouldForgetRecordedHit() {
+        clock.set(time("2025-05-11 10:30:00"));
+        engine.record("app", "/a", time("2025-05-11 10:10:05"));
+        engine.record("app", "/a", time("2025-05-11 10:10:15"));
+        engine.record("app", "/b", time("2025-05-11 10:20:00"));
+
+        engine.forget("app", "/a", time("2025-05-11 10:10:15"));
+        engine.forget("app", "/b", time("2025-05-11 10:20:00"));
+        engine.forget("app", "/b", time("2025-05-11 10:20:00"));
+        engine.forget("app", "/c", time("2025-05-11 10:20:00"));
+
+        HotStatsEngine.Coverage coverage = engine.coverage(time("2025-05-11 10:01:00"), time("2025-05-11 10:29:59"));
+
+        assertThat(engine.getStats(coverage, null)).extracting(ViewStats::getUri, ViewStats::getHits)
+                .containsExactly(tuple("/a", 1L));
+    }
+
+    @Test
+    @DisplayName("Хиты до запуска и из будущего не должны учитываться")
+    void shouldIgnoreHitsOutsideCoverage() {
+        clock.set(time("2025-05-11 10:30:00"));
+        engine.record("app", "/a", time("2025-05-11 09:59:00"));
+        engine.record("app", "/a", time("2025-05-11 12:00:00"));
+
+        HotStatsEngine.Coverage coverage = engine.coverage(time("2025-05-11 10:00:00"), time("2025-05-11 13:00:00"));
+
+        assertThat(engine.getStats(coverage, null)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Выключенное хранилище не должно покрывать ни один интервал")
+    void shouldNotCoverWhenDisabled() {
+        HotStatsEngine disabled = new HotStatsEngine(false, 24, clock);
+
+        assertThat(disabled.coverage(time("2025-05-11 10:00:00"), time("2025-05-11 13:00:00")).isEmpty()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Параллельные хиты в соседние корзины не должны теряться при смене корзины")
+    void shouldNotLoseConcurrentHits() throws Exception {
+        clock.set(time("2025-05-11 10:30:59"));
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < 8; thread++) {
+            LocalDateTime timestamp = thread % 2 == 0 ? time("2025-05-11 10:30:30") : time("2025-05-11 10:31:10");
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    engine.record("app", "/a", timestamp);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        HotStatsEngine.Coverage coverage = engine.coverage(time("2025-05-11 10:30:00"), time("2025-05-11 10:32:00"));
+
+        assertThat(engine.getStats(coverage, null)).extracting(ViewStats::getHits).containsExactly(80_000L);
+    }
+
+    @Test
+    @DisplayName("Ряды без корзин внутри окна должны удаляться, активные ряды — оставаться")
+    void shouldEvictIdleSeries() {
+        clock.set(time("2025-05-11 10:30:00"));
+        engine.record("app", "/a", time("2025-05-11 10:10:00"));
+        engine.record("app", "/b", time("2025-05-11 10:29:00"));
+
+        clock.set(time("2025-05-11 11:20:00"));
+
+        assertThat(engine.evictIdle()).isEqualTo(1);
+        assertThat(engine.size()).isEqualTo(1);
+        HotStatsEngine.Coverage coverage = engine.coverage(time("2025-05-11 10:00:00"), time("2025-05-11 12:00:00"));
+        assertThat(engine.getStats(coverage, null)).extracting(ViewStats::getUri).containsExactly("/b");
+
+        engine.record("app", "/a", time("2025-05-11 11:19:00"));
+
+        assertThat(engine.getStats(coverage, List.of("/a"))).extracting(ViewStats::getHits).containsExactly(1L);
+    }
+
+    @Test
+    @DisplayName("Хиты, записанные во время удаления неактивных рядов, не должны теряться")
+    void shouldNotLoseHitsRecordedDuringEviction() throws Exception {
+        clock.set(time("2025-05-11 10:30:00"));
+        for (int i = 0; i < 100; i++) {
+            engine.record("app", "/u" + i, time("2025-05-11 10:00:00"));
+        }
+        clock.set(time("2025-05-11 11:10:00"));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        Future<?> evictor = executor.submit(() -> {
+            for (int i = 0; i < 1_000; i++) {
+                engine.evictIdle();
+            }
+        });
+        List<Future<?>> writers = new ArrayList<>();
+        for (int thread = 0; thread < 3; thread++) {
+            writers.add(executor.submit(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    engine.record("app", "/u" + (i % 100), time("2025-05-11 11:09:00"));
+                }
+            }));
+        }
+        for (Future<?> writer : writers) {
+            writer.get();
+        }
+        evictor.get();
+        executor.shutdown();
+
+        HotStatsEngine.Coverage coverage = engine.coverage(time("2025-05-11 11:00:00"), time("2025-05-11 11:10:00"));
+
+        assertThat(engine.getStats(coverage, null)).extracting(ViewStats::getHits)
+                .hasSize(100)
+                .allMatch(hits -> hits == 300L);
+    }
+
+    private static LocalDateTime time(String value) {
+        return LocalDateTime.parse(value, FMT);
+    }
+}
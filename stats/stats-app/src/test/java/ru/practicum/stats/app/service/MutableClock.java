@@ -0,0 +1,30 @@
+package ru.practicum.stats.app.service;
+
+import java.time.*;
+
+class MutableClock extends Clock {
+    private Instant instant;
+
+    MutableClock(LocalDateTime dateTime) {
+        set(dateTime);
+    }
+
+    void set(LocalDateTime dateTime) {
+        instant = dateTime.toInstant(ZoneOffset.UTC);
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+        return this;
+    }
+
+    @Override
+    public Instant instant() {
+        return instant;
+    }
+}
@@ -4,23 +4,36 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataIntegrityViolationException;
 import ru.practicum.stats.app.mapper.EndpointHitMapper;
 import ru.practicum.stats.app.model.EndpointHit;
+import ru.practicum.stats.app.model.EndpointHitRollup;
+import ru.practicum.stats.app.model.EndpointIp;
+import ru.practicum.stats.app.model.HitCount;
+import ru.practicum.stats.app.repository.EndpointHitRollupRepository;
 import ru.practicum.stats.app.repository.StatsRepository;
 import ru.practicum.stats.dto.EndpointHitDto;
 import ru.practicum.stats.dto.ViewStats;
 
-import java.time.LocalDateTime;
+import java.time.*;
 import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.*;
 
 class StatsServiceTest {
     private StatsRepository repository;
     private EndpointHitMapper mapper;
+    private EndpointDictionary dictionary;
+    private EndpointHitRollupRepository rollupRepository;
+    private HitCompactionService compaction;
+    private HitBuffer hitBuffer;
+    private TopStatsEngine topStats;
     private StatsService service;
 
     private static final DateTimeFormatter FMT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
@@ -29,13 +42,26 @@ class StatsServiceTest {
     void setUp() {
         repository = mock(StatsRepository.class);
         mapper = mock(EndpointHitMapper.class);
-        service = new StatsService(repository, mapper);
+        dictionary = mock(EndpointDictionary.class);
+        rollupRepository = mock(EndpointHitRollupRepository.class);
+        compaction = mock(HitCompactionService.class);
+        hitBuffer = mock(HitBuffer.class);
+        topStats = new TopStatsEngine(false, 24, 1000, Clock.systemDefaultZone());
+        when(dictionary.getAppId("app")).thenReturn(1);
+        when(dictionary.getAppName(1)).thenReturn("app");
+        when(dictionary.getUriId("/a")).thenReturn(10);
+        when(dictionary.getUri(10)).thenReturn("/a");
+        when(dictionary.getUri(20)).thenReturn("/b");
+        when(compaction.bucketStart(any())).thenAnswer(invocation ->
+                invocation.getArgument(0, LocalDateTime.class).truncatedTo(ChronoUnit.DAYS));
+        service = new StatsService(repository, mapper, new HotStatsEngine(false, 24, Clock.systemDefaultZone()),
+                dictionary, rollupRepository, compaction, hitBuffer, topStats);
     }
 
     @Test
     @DisplayName("Сохранение хита должно маппировать DTO в сущность и сохранить её")
     void save_ShouldMapAndSaveEntity() {
-        EndpointHitDto dto = new EndpointHitDto("app", "/uri", "127.0.0.1",
+        EndpointHitDto dto = new EndpointHitDto("app", "/a", "127.0.0.1",
                 LocalDateTime.parse("2025-05-11 10:00:00", FMT));
         EndpointHit entity = new EndpointHit();
         when(mapper.toEntity(dto)).thenReturn(entity);
@@ -44,6 +70,31 @@ class StatsServiceTest {
 
         verify(mapper, times(1)).toEntity(dto);
         verify(repository, times(1)).save(entity);
+        assertThat(entity.getAppId()).isEqualTo(1);
+        assertThat(entity.getUriId()).isEqualTo(10);
+    }
+
+    @Test
+    @DisplayName("Пачка хитов должна сохраняться одним saveAll без буферизованных")
+    void saveAll_ShouldSaveUnbufferedHitsInOneCall() {
+        EndpointHitDto first = new EndpointHitDto("app", "/a", "127.0.0.1",
+                LocalDateTime.parse("2025-05-11 10:00:00", FMT));
+        EndpointHitDto second = new EndpointHitDto("app", "/a", "127.0.0.2",
+                LocalDateTime.parse("2025-05-11 10:00:01", FMT));
+        EndpointHitDto third = new EndpointHitDto("app", "/a", "127.0.0.3",
+                LocalDateTime.parse("2025-05-11 10:00:02", FMT));
+        EndpointHit firstEntity = new EndpointHit(null, null, null, "127.0.0.1", first.getTimestamp());
+        EndpointHit secondEntity = new EndpointHit(null, null, null, "127.0.0.2", second.getTimestamp());
+        EndpointHit thirdEntity = new EndpointHit(null, null, null, "127.0.0.3", third.getTimestamp());
+        when(mapper.toEntity(first)).thenReturn(firstEntity);
+        when(mapper.toEntity(second)).thenReturn(secondEntity);
+        when(mapper.toEntity(third)).thenReturn(thirdEntity);
+        when(hitBuffer.offer(secondEntity)).thenReturn(true);
+
+        service.saveAll(List.of(first, second, third));
+
+        verify(repository, times(1)).saveAll(List.of(firstEntity, thirdEntity));
+        verify(repository, never()).save(any());
     }
 
     @Test
@@ -52,7 +103,7 @@ class StatsServiceTest {
         String start = "2025-05-01 00:00:00";
         String end = "2025-05-31 23:59:59";
         when(repository.findStats(any(), any(), isNull()))
-                .thenReturn(List.of(new ViewStats("app", "/uri", 5L)));
+                .thenReturn(List.of(new HitCount(1, 10, 5L)));
 
         List<ViewStats> stats = service.getStats(start, end, null, false);
 
@@ -62,7 +113,7 @@ class StatsServiceTest {
         assertThat(captStart.getValue()).isEqualTo(LocalDateTime.parse(start, FMT));
         assertThat(captEnd.getValue()).isEqualTo(LocalDateTime.parse(end, FMT));
         assertThat(stats).hasSize(1)
-                .allMatch(v -> v.getHits() == 5L);
+                .allMatch(v -> v.getHits() == 5L && v.getApp().equals("app") && v.getUri().equals("/a"));
     }
 
     @Test
@@ -71,9 +122,10 @@ class StatsServiceTest {
         String start = "2025-05-01 00:00:00";
         String end = "2025-05-31 23:59:59";
         List<String> uris = List.of("/a", "/b");
+        when(dictionary.findUriIds(uris)).thenReturn(List.of(10, 20));
 
-        when(repository.findUniqueStats(any(), any(), eq(uris)))
-                .thenReturn(List.of(new ViewStats("app", "/a", 2L)));
+        when(repository.findUniqueStats(any(), any(), eq(List.of(10, 20))))
+                .thenReturn(List.of(new HitCount(1, 10, 2L)));
 
         List<ViewStats> stats = service.getStats(start, end, uris, true);
 
@@ -81,12 +133,24 @@ class StatsServiceTest {
         verify(repository, times(1)).findUniqueStats(
                 eq(LocalDateTime.parse(start, FMT)),
                 eq(LocalDateTime.parse(end, FMT)),
-                eq(uris)
+                eq(List.of(10, 20))
         );
         assertThat(stats).extracting(ViewStats::getUri)
                 .containsExactly("/a");
     }
 
+    @Test
+    @DisplayName("Неизвестные URI должны давать пустой результат без запроса к БД")
+    void getStats_ShouldReturnEmpty_WhenUrisUnknown() {
+        when(dictionary.findUriIds(List.of("/unknown"))).thenReturn(List.of());
+
+        List<ViewStats> stats = service.getStats("2025-05-01 00:00:00", "2025-05-31 23:59:59",
+                List.of("/unknown"), true);
+
+        assertThat(stats).isEmpty();
+        verifyNoInteractions(repository);
+    }
+
     @Test
     @DisplayName("Пустой список URI должен трактоваться как null при получении статистики")
     void getStats_ShouldTreatEmptyUrisAsNull() {
@@ -101,4 +165,189 @@ class StatsServiceTest {
 
         verify(repository).findStats(any(), any(), isNull());
     }
+
+    @Test
+    @DisplayName("Статистика в пределах горячего окна должна объединяться с данными БД за более ранний период")
+    void getStats_ShouldMergeHotStatsWithRepository() {
+        LocalDateTime startup = LocalDateTime.parse("2025-05-11 10:00:30", FMT);
+        MutableClock clock = new MutableClock(startup);
+        HotStatsEngine hotStats = new HotStatsEngine(true, 24, clock);
+        service = new StatsService(repository, mapper, hotStats, dictionary, rollupRepository, compaction,
+                hitBuffer, topStats);
+
+        clock.set(LocalDateTime.parse("2025-05-11 10:05:00", FMT));
+        EndpointHitDto dto = new EndpointHitDto("app", "/a", "1.1.1.1",
+                LocalDateTime.parse("2025-05-11 10:02:10", FMT));
+        when(mapper.toEntity(any())).thenAnswer(invocation -> new EndpointHit(null, null, null, dto.getIp(),
+                dto.getTimestamp()));
+        service.save(dto);
+        service.save(dto);
+
+        when(repository.findStats(any(), any(), isNull()))
+                .thenReturn(List.of(new HitCount(1, 10, 3L), new HitCount(1, 20, 4L)));
+
+        List<ViewStats> stats = service.getStats("2025-05-10 00:00:00", "2030-01-01 00:00:00", null, false);
+
+        verify(repository, times(1)).findStats(eq(LocalDateTime.parse("2025-05-10 00:00:00", FMT)),
+                eq(LocalDateTime.parse("2025-05-11 10:00:59", FMT).plusNanos(999_999_000)), isNull());
+        assertThat(stats).extracting(ViewStats::getUri).containsExactly("/a", "/b");
+        assertThat(stats).extracting(ViewStats::getHits).containsExactly(5L, 4L);
+    }
+
+    @Test
+    @DisplayName("Запрос целиком внутри горячего окна не должен обращаться к БД и ждать буфер")
+    void getStats_ShouldNotQueryRepository_WhenRangeInsideHotWindow() {
+        MutableClock clock = new MutableClock(LocalDateTime.parse("2025-05-11 10:00:00", FMT));
+        HotStatsEngine hotStats = new HotStatsEngine(true, 24, clock);
+        service = new StatsService(repository, mapper, hotStats, dictionary, rollupRepository, compaction,
+                hitBuffer, topStats);
+        when(dictionary.findUriIds(List.of("/a"))).thenReturn(List.of(10));
+
+        clock.set(LocalDateTime.parse("2025-05-11 12:00:00", FMT));
+        when(mapper.toEntity(any())).thenReturn(new EndpointHit(null, null, null, "1.1.1.1",
+                LocalDateTime.parse("2025-05-11 11:30:00", FMT)));
+        service.save(new EndpointHitDto("app", "/a", "1.1.1.1", LocalDateTime.parse("2025-05-11 11:30:00", FMT)));
+
+        List<ViewStats> stats = service.getStats("2025-05-11 11:00:00", "2025-05-11 11:59:59", List.of("/a"), false);
+
+        verify(repository, never()).findStats(any(), any(), any());
+        verify(hitBuffer, never()).awaitFlushed();
+        assertThat(stats).hasSize(1)
+                .allMatch(v -> v.getHits() == 1L);
+    }
+
+    @Test
+    @DisplayName("Горячее окно не должно учитывать хиты, которые не сохранились или ушли в журнал отказов")
+    void save_ShouldNotCountHitsThatWereNotPersisted() {
+        MutableClock clock = new MutableClock(LocalDateTime.parse("2025-05-11 10:00:00", FMT));
+        HotStatsEngine hotStats = new HotStatsEngine(true, 24, clock);
+        service = new StatsService(repository, mapper, hotStats, dictionary, rollupRepository, compaction,
+                hitBuffer, topStats);
+        service.subscribeToDeadLetters();
+        ArgumentCaptor<Consumer<EndpointHit>> deadLetters = ArgumentCaptor.captor();
+        verify(hitBuffer).onDeadLetter(deadLetters.capture());
+
+        clock.set(LocalDateTime.parse("2025-05-11 12:00:00", FMT));
+        LocalDateTime ts = LocalDateTime.parse("2025-05-11 11:30:00", FMT);
+        EndpointHit direct = new EndpointHit(null, null, null, "1.1.1.1", ts);
+        EndpointHit buffered = new EndpointHit(null, null, null, "2.2.2.2", ts);
+        EndpointHit persisted = new EndpointHit(null, null, null, "3.3.3.3", ts);
+        when(mapper.toEntity(any())).thenReturn(direct, buffered, persisted);
+        when(hitBuffer.offer(buffered)).thenReturn(true);
+        when(hitBuffer.offer(persisted)).thenReturn(true);
+        when(repository.save(direct)).thenThrow(new DataIntegrityViolationException("bad hit"));
+        EndpointHitDto dto = new EndpointHitDto("app", "/a", "1.1.1.1", ts);
+
+        assertThatThrownBy(() -> service.save(dto)).isInstanceOf(DataIntegrityViolationException.class);
+        service.save(dto);
+        service.save(dto);
+        deadLetters.getValue().accept(buffered);
+
+        List<ViewStats> stats = service.getStats("2025-05-11 11:00:00", "2025-05-11 11:59:59", null, false);
+
+        assertThat(stats).hasSize(1)
+                .allMatch(v -> v.getHits() == 1L);
+    }
+
+    @Test
+    @DisplayName("Хит старше границы компакции должен добавляться в агрегат, а не в сырую таблицу")
+    void save_ShouldFoldLateHit_WhenOlderThanWatermark() {
+        EndpointHitDto dto = new EndpointHitDto("app", "/a", "127.0.0.1",
+                LocalDateTime.parse("2025-01-01 10:00:00", FMT));
+        EndpointHit entity = new EndpointHit(null, null, null, dto.getIp(), dto.getTimestamp());
+        when(mapper.toEntity(dto)).thenReturn(entity);
+        when(compaction.isCompacted(dto.getTimestamp())).thenReturn(true);
+
+        service.save(dto);
+
+        verify(compaction).foldLateHit(entity);
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Статистика до границы компакции должна браться из агрегатов и объединяться с сырыми хитами")
+    void getStats_ShouldCombineRollupsWithRawHits_WhenRangeCrossesWatermark() {
+        LocalDateTime watermark = LocalDateTime.parse("2025-05-10 00:00:00", FMT);
+        when(compaction.getWatermark()).thenReturn(watermark);
+        when(rollupRepository.sumHits(any(), any(), isNull())).thenReturn(List.of(new HitCount(1, 10, 7L)));
+        when(repository.findStats(any(), any(), isNull()))
+                .thenReturn(List.of(new HitCount(1, 10, 2L), new HitCount(1, 20, 8L)));
+
+        List<ViewStats> stats = service.getStats("2025-05-01 00:00:00", "2025-05-31 23:59:59", null, false);
+
+        verify(rollupRepository).sumHits(LocalDateTime.parse("2025-05-01 00:00:00", FMT),
+                watermark.minusNanos(1_000), null);
+        verify(repository).findStats(LocalDateTime.parse("2025-05-01 00:00:00", FMT),
+                LocalDateTime.parse("2025-05-31 23:59:59", FMT), null);
+        assertThat(stats).extracting(ViewStats::getUri).containsExactly("/a", "/b");
+        assertThat(stats).extracting(ViewStats::getHits).containsExactly(9L, 8L);
+    }
+
+    @Test
+    @DisplayName("Начало периода внутри свёрнутого бакета должно учитывать этот бакет целиком")
+    void getStats_ShouldIncludeWholeHeadBucket_WhenStartInsideCompactedBucket() {
+        LocalDateTime watermark = LocalDateTime.parse("2025-05-10 00:00:00", FMT);
+        when(compaction.getWatermark()).thenReturn(watermark);
+        when(rollupRepository.sumHits(any(), any(), isNull())).thenReturn(List.of(new HitCount(1, 10, 7L)));
+        when(repository.findStats(any(), any(), isNull())).thenReturn(List.of());
+
+        service.getStats("2025-05-03 15:30:00", "2025-05-31 23:59:59", null, false);
+
+        verify(rollupRepository).sumHits(LocalDateTime.parse("2025-05-03 00:00:00", FMT),
+                watermark.minusNanos(1_000), null);
+        verify(repository).findStats(LocalDateTime.parse("2025-05-03 15:30:00", FMT),
+                LocalDateTime.parse("2025-05-31 23:59:59", FMT), null);
+    }
+
+    @Test
+    @DisplayName("Уникальная статистика через границу компакции должна объединять скетчи и сырые IP")
+    void getStats_ShouldMergeSketchesWithRawIps_WhenUniqueAcrossWatermark() {
+        LocalDateTime watermark = LocalDateTime.parse("2025-05-10 00:00:00", FMT);
+        when(compaction.getWatermark()).thenReturn(watermark);
+        IpSketch sketch = new IpSketch();
+        sketch.add("1.1.1.1");
+        sketch.add("2.2.2.2");
+        when(rollupRepository.findRollups(any(), any(), isNull())).thenReturn(List.of(
+                new EndpointHitRollup(1L, 1, 10, LocalDateTime.parse("2025-05-05 00:00:00", FMT), 5L,
+                        sketch.toBytes())));
+        when(compaction.getRawTailStart()).thenReturn(watermark);
+        when(repository.findEndpointIps(any(), any(), isNull())).thenReturn(List.of(
+                new EndpointIp(1, 10, "2.2.2.2"), new EndpointIp(1, 10, "3.3.3.3")));
+
+        List<ViewStats> stats = service.getStats("2025-05-01 00:00:00", "2025-05-31 23:59:59", null, true);
+
+        verify(repository, never()).findUniqueStats(any(), any(), any());
+        verify(repository).findEndpointIps(eq(watermark), any(), isNull());
+        assertThat(stats).hasSize(1)
+                .allMatch(v -> v.getUri().equals("/a") && v.getHits() == 3L);
+    }
+
+    @Test
+    @DisplayName("Принятый буфером хит не должен сохраняться синхронно, а чтение должно дождаться записи буфера")
+    void save_ShouldUseBuffer_WhenItAcceptsHit() {
+        EndpointHitDto dto = new EndpointHitDto("app", "/a", "127.0.0.1",
+                LocalDateTime.parse("2025-05-11 10:00:00", FMT));
+        EndpointHit entity = new EndpointHit();
+        when(mapper.toEntity(dto)).thenReturn(entity);
+        when(hitBuffer.offer(entity)).thenReturn(true);
+
+        service.save(dto);
+        service.getStats("2025-05-01 00:00:00", "2025-05-31 23:59:59", null, false);
+
+        verify(repository, never()).save(any());
+        verify(hitBuffer).awaitFlushed();
+    }
+
+    @Test
+    @DisplayName("Top-статистика вне окна сводок должна строиться по полной статистике с фильтром по префиксу")
+    void getTopStats_ShouldFallBackToFullStats_WhenNotCovered() {
+        when(dictionary.getUri(30)).thenReturn("/events/2");
+        when(dictionary.getUri(40)).thenReturn("/events/3");
+        when(repository.findStats(any(), any(), isNull())).thenReturn(List.of(new HitCount(1, 10, 50L),
+                new HitCount(1, 30, 20L), new HitCount(1, 40, 10L)));
+
+        List<ViewStats> stats = service.getTopStats("2025-05-01 00:00:00", "2025-05-31 23:59:59", 1, "/events/");
+
+        assertThat(stats).extracting(ViewStats::getUri).containsExactly("/events/2");
+    }
 }
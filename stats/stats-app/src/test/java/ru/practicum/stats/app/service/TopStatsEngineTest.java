@@ -0,0 +1,88 @@
+package ru.practicum.stats.app.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.practicum.stats.dto.ViewStats;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TopStatsEngineTest {
+    private static final LocalDateTime STARTUP = LocalDateTime.of(2025, 5, 11, 9, 30);
+
+    private MutableClock clock;
+    private TopStatsEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(STARTUP);
+        engine = new TopStatsEngine(true, 24, 3, clock);
+        clock.set(LocalDateTime.of(2025, 5, 11, 12, 30));
+    }
+
+    @Test
+    @DisplayName("Top-N должен возвращать самые посещаемые эндпоинты с учётом префикса и лимита")
+    void getTop_ShouldReturnHeavyHittersByPrefix() {
+        LocalDateTime ts = LocalDateTime.of(2025, 5, 11, 11, 10);
+        hits("/events/1", 5, ts);
+        hits("/events/2", 3, ts.plusHours(1));
+        hits("/users", 10, ts);
+
+        List<ViewStats> top = engine.getTop(LocalDateTime.of(2025, 5, 11, 11, 0),
+                LocalDateTime.of(2025, 5, 11, 12, 59), 2, "/events/");
+
+        assertThat(top).extracting(ViewStats::getUri).containsExactly("/events/1", "/events/2");
+        assertThat(top).extracting(ViewStats::getHits).containsExactly(5L, 3L);
+    }
+
+    @Test
+    @DisplayName("При переполнении сводки частые эндпоинты должны вытеснять редкие")
+    void record_ShouldKeepHeavyHitters_WhenCapacityExceeded() {
+        LocalDateTime ts = LocalDateTime.of(2025, 5, 11, 12, 0);
+        hits("/hot", 50, ts);
+        IntStream.range(0, 20).forEach(i -> engine.record("app", "/rare/" + i, ts));
+        hits("/warm", 30, ts);
+
+        List<ViewStats> top = engine.getTop(ts, ts.plusMinutes(59), 2, null);
+
+        assertThat(top).extracting(ViewStats::getUri).containsExactly("/hot", "/warm");
+    }
+
+    @Test
+    @DisplayName("Отменённые хиты должны вычитаться из сводки своего часа")
+    void forget_ShouldWithdrawHits() {
+        LocalDateTime ts = LocalDateTime.of(2025, 5, 11, 12, 0);
+        hits("/a", 5, ts);
+        hits("/b", 4, ts);
+        hits("/b", 1, ts.minusHours(1));
+
+        IntStream.range(0, 3).forEach(i -> engine.forget("app", "/a", ts));
+        engine.forget("app", "/b", ts.minusHours(2));
+
+        List<ViewStats> top = engine.getTop(ts.minusHours(1), ts.plusMinutes(59), 2, null);
+
+        assertThat(top).extracting(ViewStats::getUri).containsExactly("/b", "/a");
+        assertThat(top).extracting(ViewStats::getHits).containsExactly(5L, 2L);
+    }
+
+    @Test
+    @DisplayName("Диапазон до запуска или за пределами окна не должен покрываться сводками")
+    void covers_ShouldRejectRangesOutsideWindow() {
+        assertThat(engine.covers(LocalDateTime.of(2025, 5, 11, 10, 0), LocalDateTime.of(2025, 5, 11, 12, 0)))
+                .isTrue();
+        assertThat(engine.covers(LocalDateTime.of(2025, 5, 11, 9, 45), LocalDateTime.of(2025, 5, 11, 12, 0)))
+                .isFalse();
+
+        clock.set(LocalDateTime.of(2025, 5, 13, 12, 0));
+        assertThat(engine.covers(LocalDateTime.of(2025, 5, 11, 10, 0), LocalDateTime.of(2025, 5, 13, 12, 0)))
+                .isFalse();
+    }
+
+    private void hits(String uri, int count, LocalDateTime timestamp) {
+        IntStream.range(0, count).forEach(i -> engine.record("app", uri, timestamp));
+    }
+}
@@ -0,0 +1,67 @@
+package ru.practicum.stats.benchmarks;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Заполняет endpoint_hits средствами PostgreSQL. Популярность URI скошена (random()^3),
+ * IP берутся из пула в 50 000 адресов, время хитов равномерно распределено за последние 90 дней.
+ */
+final class HitSeeder {
+    static final String APP = "ewm-main-service";
+    static final int URIS = 1000;
+    static final int DAYS = 90;
+    private static final int IPS = 50_000;
+    private static final int IP_BASE = 167_772_160;
+
+    private HitSeeder() {
+    }
+
+    static void seed(DataSource dataSource, int hits, LocalDateTime now) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("INSERT INTO apps (id, name) VALUES (1, '" + APP + "')");
+                statement.execute("INSERT INTO uris (id, uri) SELECT g, '/events/' || g FROM generate_series(1, " + URIS
+                        + ") g");
+                statement.execute("SELECT setseed(0.42)");
+            }
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "INSERT INTO endpoint_hits (id, app_id, uri_id, ip, timestamp) "
+                            + "SELECT g, 1, 1 + floor(? * power(random(), 3))::int, "
+                            + "'\\x04'::bytea || int4send((? + floor(random() * ?))::int), "
+                            + "? - random() * (? * interval '1 day') "
+                            + "FROM generate_series(1, ?) g")) {
+                statement.setInt(1, URIS);
+                statement.setInt(2, IP_BASE);
+                statement.setInt(3, IPS);
+                statement.setObject(4, now);
+                statement.setInt(5, DAYS);
+                statement.setInt(6, hits);
+                statement.executeUpdate();
+            }
+            try (Statement statement = connection.createStatement()) {
+                for (String table : List.of("apps", "uris", "endpoint_hits")) {
+                    statement.execute("SELECT setval('" + table + "_seq', "
+                            + "COALESCE((SELECT MAX(id) FROM " + table + "), 0) + 1, false)");
+                }
+                statement.execute("ANALYZE");
+            }
+        }
+    }
+
+    static List<String> uris(int count, long seed) {
+        Random random = new Random(seed);
+        List<String> uris = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            uris.add("/events/" + (random.nextInt(URIS) + 1));
+        }
+        return uris;
+    }
+}
@@ -0,0 +1,105 @@
+package ru.practicum.stats.benchmarks;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.stats.app.StatsApplication;
+import ru.practicum.stats.app.service.HitCompactionService;
+import ru.practicum.stats.app.service.StatsService;
+import ru.practicum.stats.dto.EndpointHitDto;
+import ru.practicum.stats.dto.ViewStats;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Запрос в том виде, в каком его отправляет main-service при обогащении событий просмотрами: десять URI событий,
+ * start — самая ранняя дата создания (начало 90-дневной истории), end — текущий момент. После заполнения
+ * БД ещё {@link #RECENT_HITS} хитов проходят через StatsService, чтобы горячее хранилище было непустым.
+ * Горячее хранилище покрывает только последние stats.hot.window-hours и считает хиты без учёта IP, поэтому
+ * без компакции остаток периода читается из endpoint_hits, а unique=true к нему не обращается вовсе.
+ * Сравнение hot=false и hot=true при compacted=false и compacted=true показывает, что из этого даёт каждое.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms1g", "-Xmx1g"})
+public class MainQueryShapeBenchmark {
+    private static final DateTimeFormatter FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final int RECENT_HITS = 10_000;
+
+    @Param({"1000000"})
+    private int hits;
+
+    @Param({"false", "true"})
+    private boolean hot;
+
+    /**
+     * main-service всегда запрашивает уникальные просмотры.
+     */
+    @Param({"true", "false"})
+    private boolean unique;
+
+    @Param({"false", "true"})
+    private boolean compacted;
+
+    private EmbeddedPostgres postgres;
+    private ConfigurableApplicationContext context;
+    private StatsService service;
+    private String start;
+    private String end;
+    private List<String> uris;
+
+    @Setup
+    public void setUp() throws IOException, SQLException {
+        postgres = EmbeddedPostgres.builder().start();
+        context = new SpringApplicationBuilder(StatsApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                        "--spring.datasource.username=postgres",
+                        "--spring.datasource.password=",
+                        "--stats.hot.enabled=" + hot,
+                        "--stats.top.enabled=false",
+                        "--stats.compaction.enabled=false",
+                        "--stats.compaction.retention-days=7",
+                        "--logging.level.ru.practicum=WARN");
+        service = context.getBean(StatsService.class);
+
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        HitSeeder.seed(postgres.getPostgresDatabase(), hits, now);
+        if (compacted) {
+            context.getBean(HitCompactionService.class).compact();
+        }
+        uris = HitSeeder.uris(10, 42);
+        List<EndpointHitDto> recent = new ArrayList<>(RECENT_HITS);
+        for (int i = 0; i < RECENT_HITS; i++) {
+            recent.add(new EndpointHitDto(HitSeeder.APP, uris.get(i % uris.size()), "10.1." + (i >> 8) + "." + (i & 255),
+                    LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS)));
+        }
+        service.saveAll(recent);
+
+        start = now.minusDays(HitSeeder.DAYS).format(FORMAT);
+        end = LocalDateTime.now().plusMinutes(1).format(FORMAT);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        context.close();
+        postgres.close();
+    }
+
+    @Benchmark
+    public List<ViewStats> getStats() {
+        return service.getStats(start, end, uris, unique);
+    }
+}
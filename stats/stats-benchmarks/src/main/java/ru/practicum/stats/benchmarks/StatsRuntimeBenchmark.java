@@ -0,0 +1,121 @@
+package ru.practicum.stats.benchmarks;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.stats.app.StatsApplication;
+import ru.practicum.stats.reactive.ReactiveStatsApplication;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Пропускная способность HTTP API статистики в сервлетной (Tomcat + Spring MVC) и реактивной (Netty + WebFlux)
+ * сборках на одной и той же БД и одних и тех же сервисах. Клиент — java.net.http.HttpClient из 64 потоков.
+ * Ответы 503 реактивной сборки (переполнена очередь планировщика JDBC) не считаются ошибкой,
+ * их число печатается в конце прогона.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(64)
+@Fork(value = 1, jvmArgs = {"-Xms1g", "-Xmx1g"})
+public class StatsRuntimeBenchmark {
+    private static final DateTimeFormatter FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    @Param({"servlet", "reactive"})
+    private String runtime;
+
+    @Param({"100000"})
+    private int hits;
+
+    private EmbeddedPostgres postgres;
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private URI hitUri;
+    private URI statsUri;
+    private String timestamp;
+    private final AtomicLong rejected = new AtomicLong();
+
+    @Setup
+    public void setUp() throws IOException, SQLException {
+        postgres = EmbeddedPostgres.builder().start();
+        SpringApplicationBuilder builder = switch (runtime) {
+            case "servlet" -> new SpringApplicationBuilder(StatsApplication.class).web(WebApplicationType.SERVLET);
+            case "reactive" -> ReactiveStatsApplication.builder();
+            default -> throw new IllegalArgumentException("Неизвестная сборка: " + runtime);
+        };
+        context = builder.run("--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                "--spring.datasource.username=postgres",
+                "--spring.datasource.password=",
+                "--server.port=0",
+                "--stats.compaction.enabled=false",
+                "--logging.level.ru.practicum=WARN");
+        int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        HitSeeder.seed(postgres.getPostgresDatabase(), hits, now);
+
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        hitUri = URI.create("http://localhost:" + port + "/hit");
+        statsUri = URI.create("http://localhost:" + port + "/stats?start="
+                + URLEncoder.encode(now.minusDays(1).format(FORMAT), StandardCharsets.UTF_8)
+                + "&end=" + URLEncoder.encode(now.format(FORMAT), StandardCharsets.UTF_8));
+        timestamp = now.minusMinutes(1).format(FORMAT);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        System.out.printf("%n%s: ответов 503 — %d%n", runtime, rejected.getAndSet(0));
+        context.close();
+        postgres.close();
+    }
+
+    @Benchmark
+    public int postHit() throws IOException, InterruptedException {
+        String body = "{\"app\":\"" + HitSeeder.APP + "\",\"uri\":\"/events/"
+                + (ThreadLocalRandom.current().nextInt(HitSeeder.URIS) + 1)
+                + "\",\"ip\":\"10.0.0.1\",\"timestamp\":\"" + timestamp + "\"}";
+        HttpRequest request = HttpRequest.newBuilder(hitUri)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return check(client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode(), 201);
+    }
+
+    @Benchmark
+    public int getStats() throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(statsUri)
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        check(response.statusCode(), 200);
+        return response.body().length;
+    }
+
+    private int check(int status, int expected) {
+        if (status == 503) {
+            rejected.incrementAndGet();
+        } else if (status != expected) {
+            throw new IllegalStateException("Неожиданный статус ответа: " + status);
+        }
+        return status;
+    }
+}
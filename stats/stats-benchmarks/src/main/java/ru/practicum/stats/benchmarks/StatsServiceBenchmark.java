@@ -0,0 +1,97 @@
+package ru.practicum.stats.benchmarks;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.stats.app.StatsApplication;
+import ru.practicum.stats.app.service.HitCompactionService;
+import ru.practicum.stats.app.service.StatsService;
+import ru.practicum.stats.dto.ViewStats;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Задержка StatsService.getStats на встроенном PostgreSQL. Горячее хранилище и top-N отключены,
+ * поэтому запрос всегда доходит до БД. При compacted=true перед замером выполняется компакция
+ * с хранением сырых хитов 7 дней, и широкие окна читают агрегаты.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms1g", "-Xmx1g"})
+public class StatsServiceBenchmark {
+    private static final DateTimeFormatter FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    @Param({"100000", "1000000"})
+    private int hits;
+
+    @Param({"PT1H", "P1D", "P30D"})
+    private String window;
+
+    /**
+     * Число запрошенных URI, 0 — без фильтра.
+     */
+    @Param({"0", "1", "10", "100"})
+    private int uriCount;
+
+    @Param({"false", "true"})
+    private boolean unique;
+
+    @Param({"false", "true"})
+    private boolean compacted;
+
+    private EmbeddedPostgres postgres;
+    private ConfigurableApplicationContext context;
+    private StatsService service;
+    private String start;
+    private String end;
+    private List<String> uris;
+
+    @Setup
+    public void setUp() throws IOException, SQLException {
+        postgres = EmbeddedPostgres.builder().start();
+        context = new SpringApplicationBuilder(StatsApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                        "--spring.datasource.username=postgres",
+                        "--spring.datasource.password=",
+                        "--stats.hot.enabled=false",
+                        "--stats.top.enabled=false",
+                        "--stats.compaction.enabled=false",
+                        "--stats.compaction.retention-days=7",
+                        "--logging.level.ru.practicum=WARN");
+        service = context.getBean(StatsService.class);
+
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        HitSeeder.seed(postgres.getPostgresDatabase(), hits, now);
+        if (compacted) {
+            context.getBean(HitCompactionService.class).compact();
+        }
+
+        start = now.minus(Duration.parse(window)).format(FORMAT);
+        end = now.format(FORMAT);
+        uris = uriCount == 0 ? null : HitSeeder.uris(uriCount, 42);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        context.close();
+        postgres.close();
+    }
+
+    @Benchmark
+    public List<ViewStats> getStats() {
+        return service.getStats(start, end, uris, unique);
+    }
+}
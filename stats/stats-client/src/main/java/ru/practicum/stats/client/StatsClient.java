@@ -55,4 +55,24 @@ public class StatsClient {
         log.info("Получено {} записей статистики", count);
         return Arrays.asList(Objects.requireNonNull(body));
     }
+
+    public List<ViewStats> getTopStats(LocalDateTime start, LocalDateTime end, int limit, String prefix) {
+        StringBuilder urlBuilder = new StringBuilder(baseUrl + "/stats/top");
+        urlBuilder.append("?start=").append(start.format(FMT));
+        urlBuilder.append("&end=").append(end.format(FMT));
+        urlBuilder.append("&limit=").append(limit);
+        if (prefix != null && !prefix.isBlank()) {
+            urlBuilder.append("&prefix=").append(prefix);
+        }
+
+        String url = urlBuilder.toString();
+        log.info("Отправка запроса top-статистики: {}", url);
+
+        ResponseEntity<ViewStats[]> resp = rest.getForEntity(url, ViewStats[].class);
+        ViewStats[] body = resp.getBody();
+        int count = body == null ? 0 : body.length;
+
+        log.info("Получено {} записей top-статистики", count);
+        return Arrays.asList(Objects.requireNonNull(body));
+    }
 }